@@ -2,6 +2,7 @@ plugins {
 	java
 	id("org.springframework.boot") version "3.5.6"
 	id("io.spring.dependency-management") version "1.1.7"
+	id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "com.example"
@@ -25,14 +26,19 @@ repositories {
 }
 
 dependencies {
+	implementation("org.springframework.boot:spring-boot-starter-actuator")
 	implementation("org.springframework.boot:spring-boot-starter-data-jpa")
 	implementation("org.springframework.boot:spring-boot-starter-security")
 	implementation("org.springframework.boot:spring-boot-starter-web")
 	implementation("org.springframework.security:spring-security-web")
+	implementation("org.springframework.session:spring-session-core")
 	implementation("com.webauthn4j:webauthn4j-core:0.29.5.RELEASE")
+	implementation("com.github.ben-manes.caffeine:caffeine")
+	implementation("org.hibernate.orm:hibernate-micrometer")
 	compileOnly("org.projectlombok:lombok")
 	developmentOnly("org.springframework.boot:spring-boot-devtools")
 	runtimeOnly("com.h2database:h2")
+	runtimeOnly("io.micrometer:micrometer-registry-prometheus")
 	annotationProcessor("org.projectlombok:lombok")
 	testImplementation("org.springframework.boot:spring-boot-starter-test")
 	testImplementation("org.springframework.security:spring-security-test")
@@ -42,3 +48,47 @@ dependencies {
 tasks.withType<Test> {
 	useJUnitPlatform()
 }
+
+// Benchmarks live in src/jmh/java and run with ./gradlew jmh
+jmh {
+	jmhVersion = "1.37"
+	// Reports allocation per operation (gc.alloc.rate.norm) next to the timings
+	profilers = listOf("gc")
+	// Machine-readable results for comparing runs; -Pjmh.includes=<regex> runs a subset
+	resultFormat = "JSON"
+	resultsFile = layout.buildDirectory.file("results/jmh/results.json")
+	project.findProperty("jmh.includes")?.let { includes = listOf(it.toString()) }
+}
+
+// HTTP load benchmarks live in src/loadtest/java; they boot the application in-process
+val loadtest: SourceSet by sourceSets.creating {
+	compileClasspath += sourceSets.main.get().output
+	runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[loadtest.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[loadtest.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
+// Platform vs virtual request threads; -Ploadtest.rate, -Ploadtest.concurrency, -Ploadtest.warmup,
+// -Ploadtest.duration, -Ploadtest.pool-size
+tasks.register<JavaExec>("threadModeBenchmark") {
+	description = "Compares throughput and latency percentiles of platform and virtual request threads"
+	group = "verification"
+	classpath = loadtest.runtimeClasspath
+	mainClass = "com.example.DevPlayground.loadtest.ThreadModeBenchmark"
+	listOf("rate", "concurrency", "warmup", "duration", "pool-size").forEach { name ->
+		project.findProperty("loadtest.$name")?.let { systemProperty("loadtest.$name", it) }
+	}
+}
+
+// End-to-end load test against the loadtest profile; -Ploadtest.rate, -Ploadtest.concurrency,
+// -Ploadtest.warmup, -Ploadtest.duration, -Ploadtest.users and -Ploadtest.todos
+tasks.register<JavaExec>("loadTest") {
+	description = "Drives mixed login, todo and admin traffic and reports throughput and latency percentiles per endpoint"
+	group = "verification"
+	classpath = loadtest.runtimeClasspath
+	mainClass = "com.example.DevPlayground.loadtest.LoadTest"
+	listOf("rate", "concurrency", "warmup", "duration", "users", "todos").forEach { name ->
+		project.findProperty("loadtest.$name")?.let { systemProperty("loadtest.$name", it) }
+	}
+}
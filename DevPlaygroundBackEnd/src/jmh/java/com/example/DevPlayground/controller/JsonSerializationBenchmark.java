@@ -0,0 +1,67 @@
+package com.example.DevPlayground.controller;
+
+import com.example.DevPlayground.entity.Todo;
+import com.example.DevPlayground.entity.TodoStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response serialization cost of a single todo, a 50-todo list (GET /api/todo/user/{userName}) and
+ * UserResponse, with an ObjectMapper configured the way Spring Boot configures the one used by the controllers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private Todo todo;
+    private List<Todo> todos;
+    private UserController.UserResponse userResponse;
+
+    @Setup
+    public void createResponses() {
+        todo = newTodo(1);
+        todos = new ArrayList<>();
+        for (int i = 1; i <= 50; i++) {
+            todos.add(newTodo(i));
+        }
+        userResponse = new UserController.UserResponse(1L, "user", "user@example.com", "USER", true);
+    }
+
+    private static Todo newTodo(long id) {
+        Todo todo = new Todo("user", "Todo " + id, "Description of todo " + id, TodoStatus.PENDING,
+                LocalDateTime.of(2030, 1, 1, 10, 0));
+        todo.setId(id);
+        todo.setVersion(0L);
+        return todo;
+    }
+
+    @Benchmark
+    public byte[] todo() throws Exception {
+        return objectMapper.writeValueAsBytes(todo);
+    }
+
+    @Benchmark
+    public byte[] todoList() throws Exception {
+        return objectMapper.writeValueAsBytes(todos);
+    }
+
+    @Benchmark
+    public byte[] userResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(userResponse);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.DevPlayground.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Challenge extraction from a typical clientDataJSON: the streaming {@link ClientDataParser} against the
+ * previous Base64 → String → readTree approach. Run with the gc profiler ({@code ./gradlew jmh}) to compare
+ * gc.alloc.rate.norm, the bytes allocated per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientDataParserBenchmark {
+
+    private static final String ORIGIN = "http://localhost:5173";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ClientDataParser parser = new ClientDataParser(objectMapper.getFactory(), List.of(ORIGIN));
+    private String clientDataJSON;
+
+    @Setup
+    public void createClientData() {
+        String json = "{\"type\":\"webauthn.get\","
+                + "\"challenge\":\"q2w3e4r5t6y7u8i9o0p1a2s3d4f5g6h7j8k9l0z1x2c\","
+                + "\"origin\":\"" + ORIGIN + "\",\"crossOrigin\":false,"
+                + "\"other_keys_can_be_added_here\":\"do not compare clientDataJSON against a template. See https://goo.gl/yabPex\"}";
+        clientDataJSON = Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public String streaming() {
+        return parser.extractChallenge(clientDataJSON, ClientDataParser.TYPE_GET);
+    }
+
+    @Benchmark
+    public String tree() throws Exception {
+        // The implementation ClientDataParser replaced; it checked neither type nor origin
+        String decodedClientData = new String(Base64.getUrlDecoder().decode(clientDataJSON));
+        JsonNode clientDataNode = objectMapper.readTree(decodedClientData);
+        JsonNode challengeNode = clientDataNode.get("challenge");
+        if (challengeNode == null || !challengeNode.isTextual()) {
+            throw new RuntimeException("Challenge field not found or invalid in client data");
+        }
+        return challengeNode.asText();
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.DevPlayground.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Due date parsing in TodoService: {@link DueDateParser} against the formatter-based parsing it replaced
+ * (the minute pattern first, then LocalDateTime.parse for inputs with seconds).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DueDateParserBenchmark {
+
+    private static final DateTimeFormatter MINUTES = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
+
+    @Param({"2030-01-01T10:00", "2030-01-01T10:00:30", "2030-01-01T10:00:30.123456789"})
+    public String dueDate;
+
+    @Benchmark
+    public LocalDateTime dueDateParser() {
+        return DueDateParser.parse(dueDate);
+    }
+
+    @Benchmark
+    public LocalDateTime formatter() {
+        try {
+            return LocalDateTime.parse(dueDate, MINUTES);
+        } catch (DateTimeParseException e) {
+            return LocalDateTime.parse(dueDate);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.DevPlayground.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.session.SessionInformation;
+import org.springframework.security.core.session.SessionRegistry;
+import org.springframework.security.core.session.SessionRegistryImpl;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Session registry traffic from 64 request threads: Spring's SessionRegistryImpl against
+ * {@link ConcurrentSessionRegistry}.
+ * <ul>
+ *     <li>{@code request} is what the concurrent session filter does for every authenticated request</li>
+ *     <li>{@code loginLogout} registers and removes sessions of a few shared accounts, the contended case
+ *     for the per-principal session sets</li>
+ * </ul>
+ * Compare ops/us between the two {@code registry} values; a registry that scales keeps its throughput as
+ * {@code @Threads} grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(64)
+public class SessionRegistryBenchmark {
+
+    private static final int PRINCIPALS = 1_000;
+    private static final int SESSIONS = 10_000;
+    private static final int SHARED_ACCOUNTS = 8;
+
+    @Param({"default", "concurrent"})
+    public String registry;
+
+    private SessionRegistry sessionRegistry;
+    private String[] sessionIds;
+    private final AtomicInteger threadIds = new AtomicInteger();
+
+    @Setup
+    public void populate() {
+        sessionRegistry = registry.equals("default") ? new SessionRegistryImpl() : new ConcurrentSessionRegistry();
+        sessionIds = new String[SESSIONS];
+        for (int i = 0; i < SESSIONS; i++) {
+            sessionIds[i] = "session-" + i;
+            sessionRegistry.registerNewSession(sessionIds[i], "user-" + (i % PRINCIPALS));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Caller {
+        String prefix;
+        int next;
+
+        @Setup
+        public void assignPrefix(SessionRegistryBenchmark benchmark) {
+            prefix = "login-" + benchmark.threadIds.incrementAndGet() + "-";
+        }
+    }
+
+    @Benchmark
+    public void request() {
+        String sessionId = sessionIds[ThreadLocalRandom.current().nextInt(SESSIONS)];
+        SessionInformation info = sessionRegistry.getSessionInformation(sessionId);
+        if (info != null && !info.isExpired()) {
+            sessionRegistry.refreshLastRequest(info.getSessionId());
+        }
+    }
+
+    @Benchmark
+    public int loginLogout(Caller caller) {
+        String sessionId = caller.prefix + (caller.next++ & 1023);
+        String principal = "shared-" + (caller.next % SHARED_ACCOUNTS);
+        sessionRegistry.registerNewSession(sessionId, principal);
+        int sessions = sessionRegistry.getAllSessions(principal, false).size();
+        sessionRegistry.removeSessionInformation(sessionId);
+        return sessions;
+    }
+}
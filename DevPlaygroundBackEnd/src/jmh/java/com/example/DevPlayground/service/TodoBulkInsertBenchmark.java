@@ -0,0 +1,73 @@
+package com.example.DevPlayground.service;
+
+import com.example.DevPlayground.DevPlaygroundApplication;
+import com.example.DevPlayground.entity.Todo;
+import com.example.DevPlayground.entity.TodoStatus;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows per second for inserting todos one by one and through TodoService.applyBulk.
+ * <p>
+ * jdbcBatchSize=50 is the current configuration. jdbcBatchSize=1 only approximates the behaviour before the
+ * move away from IDENTITY ids: inserts are sent one per statement as they were then, but ids still come from
+ * the pooled sequence, so the per-row key retrieval of IDENTITY is not included and the real "before"
+ * numbers were somewhat lower.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TodoBulkInsertBenchmark {
+
+    private static final int ROWS = 500;
+
+    @Param({"1", "50"})
+    public int jdbcBatchSize;
+
+    private ConfigurableApplicationContext context;
+    private TodoService todoService;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(DevPlaygroundApplication.class).run(
+                "--server.port=0",
+                "--management.server.port=-1",
+                "--spring.main.banner-mode=off",
+                "--spring.datasource.url=jdbc:h2:mem:todo-bulk-benchmark",
+                "--spring.jpa.properties.hibernate.jdbc.batch_size=" + jdbcBatchSize
+        );
+        todoService = context.getBean(TodoService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void createOneByOne() {
+        for (int i = 0; i < ROWS; i++) {
+            todoService.createTodo("bench", "title " + i, "description " + i, TodoStatus.PENDING, "2030-01-01T10:00");
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public Object createInBulk() {
+        List<Todo> todos = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            todos.add(todoService.newTodo("bench", "title " + i, "description " + i, TodoStatus.PENDING, "2030-01-01T10:00"));
+        }
+        return todoService.applyBulk(todos, Map.of(), List.of());
+    }
+}
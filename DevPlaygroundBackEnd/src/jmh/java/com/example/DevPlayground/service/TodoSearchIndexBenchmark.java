@@ -0,0 +1,65 @@
+package com.example.DevPlayground.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query latency of {@link TodoSearchIndex} holding one million todos.
+ * The todos are spread over {@code users} users, so users=10 gives 100k todos per user.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class TodoSearchIndexBenchmark {
+
+    private static final int TODOS = 1_000_000;
+    private static final int VOCABULARY = 5_000;
+    // Frequent words shared by many todos, to make intersections non-trivial
+    private static final int COMMON_WORDS = 200;
+
+    @Param({"10", "1000"})
+    public int users;
+
+    private TodoSearchIndex index;
+    private String[] words;
+    private int query;
+
+    @Setup(Level.Trial)
+    public void buildIndex() {
+        index = new TodoSearchIndex();
+        words = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            words[i] = "word" + i;
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        for (int id = 1; id <= TODOS; id++) {
+            String title = words[random.nextInt(VOCABULARY)] + " " + words[random.nextInt(COMMON_WORDS)];
+            String description = words[random.nextInt(COMMON_WORDS)] + " 買い物 " + words[random.nextInt(VOCABULARY)];
+            index.index("user" + (id % users), id, title, description);
+        }
+    }
+
+    @Benchmark
+    public List<Long> singleWord() {
+        int i = query++;
+        return index.search("user" + (i % users), words[i % COMMON_WORDS], 20);
+    }
+
+    @Benchmark
+    public List<Long> twoWords() {
+        int i = query++;
+        return index.search("user" + (i % users), words[i % COMMON_WORDS] + " " + words[(i * 7) % COMMON_WORDS], 20);
+    }
+
+    @Benchmark
+    public List<Long> japanese() {
+        int i = query++;
+        return index.search("user" + (i % users), "買い物 " + words[i % COMMON_WORDS], 20);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.DevPlayground.service;
+
+import com.example.DevPlayground.DevPlaygroundApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserService.loadUserByUsername against in-memory H2, the lookup behind every password login:
+ * served from {@link UserDetailsCache}, and after an eviction so that every call reads the users table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserDetailsLookupBenchmark {
+
+    // Created by DataInitializer
+    private static final String USERNAME = "user";
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private UserDetailsCache userDetailsCache;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(DevPlaygroundApplication.class).run(
+                "--server.port=0",
+                "--management.server.port=-1",
+                "--spring.main.banner-mode=off",
+                "--spring.datasource.url=jdbc:h2:mem:user-details-benchmark"
+        );
+        userService = context.getBean(UserService.class);
+        userDetailsCache = context.getBean(UserDetailsCache.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserDetails cached() {
+        return userService.loadUserByUsername(USERNAME);
+    }
+
+    @Benchmark
+    public UserDetails uncached() {
+        userDetailsCache.evict(List.of(USERNAME));
+        return userService.loadUserByUsername(USERNAME);
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.DevPlayground.loadtest;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Constant-rate HTTP load generator: {@code concurrency} virtual-thread clients share a target rate, each
+ * sending on its own fixed schedule. Requests during the warmup are sent but not recorded.
+ * <p>
+ * Latency is measured from when a request was due to be sent, not from when it was actually sent. A client
+ * still waiting for a slow response sends its next request late and then catches up, and that wait counts
+ * towards the latency; a closed loop would instead send less while the server is slow and hide exactly the
+ * stalls that matter (coordinated omission). {@code concurrency} caps the requests in flight, so it has to
+ * cover the target rate times the worst expected latency. Requests that were due but never sent before the
+ * end are reported separately.
+ * <p>
+ * Every client records into its own {@link Recorder}s, which are merged at the end, so the generator adds no
+ * contention of its own. Latencies are kept exactly, in microseconds, and percentiles are read from the
+ * sorted samples.
+ */
+public class LoadDriver {
+
+    /**
+     * Chooses each client's next request; {@code client} is stable per client, e.g. to pick its own session.
+     */
+    public interface RequestPlan {
+        Request next(int client, ThreadLocalRandom random);
+    }
+
+    public record Request(String endpoint, HttpRequest httpRequest) {
+    }
+
+    private final HttpClient httpClient;
+
+    public LoadDriver(HttpClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    /**
+     * @param requestsPerSecond target rate over all clients
+     */
+    public Report run(int concurrency, double requestsPerSecond, Duration warmup, Duration duration,
+                      RequestPlan plan) throws Exception {
+        if (requestsPerSecond <= 0) {
+            throw new IllegalArgumentException("requestsPerSecond must be positive");
+        }
+        long intervalNanos = (long) (concurrency * 1e9 / requestsPerSecond);
+        long start = System.nanoTime();
+        long recordFrom = start + warmup.toNanos();
+        long end = recordFrom + duration.toNanos();
+        List<Future<ClientResult>> clients = new ArrayList<>(concurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                int client = i;
+                // Spread the clients' schedules evenly over one interval
+                long firstSend = start + intervalNanos * client / concurrency;
+                clients.add(executor.submit(() -> runClient(client, firstSend, intervalNanos, recordFrom, end, plan)));
+            }
+        }
+        Map<String, Recorder> merged = new TreeMap<>();
+        long unsent = 0;
+        for (Future<ClientResult> client : clients) {
+            client.get().recorders().forEach((endpoint, recorder) ->
+                    merged.computeIfAbsent(endpoint, key -> new Recorder()).addAll(recorder));
+            unsent += client.get().unsent();
+        }
+        return new Report(concurrency, requestsPerSecond, duration, merged, unsent);
+    }
+
+    /**
+     * Logs in through POST /api/login and returns the session cookie ({@code name=value}) for later requests.
+     */
+    public String login(String baseUrl, String username, String password) throws Exception {
+        HttpResponse<Void> response = httpClient.send(loginRequest(baseUrl, username, password),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login of " + username + " failed with status " + response.statusCode());
+        }
+        String setCookie = response.headers().firstValue("Set-Cookie")
+                .orElseThrow(() -> new IllegalStateException("Login did not return a session cookie"));
+        return setCookie.substring(0, setCookie.indexOf(';') < 0 ? setCookie.length() : setCookie.indexOf(';'));
+    }
+
+    public static HttpRequest loginRequest(String baseUrl, String username, String password) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/api/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}"))
+                .build();
+    }
+
+    public static HttpRequest get(String url, String sessionCookie) {
+        return HttpRequest.newBuilder().uri(URI.create(url)).header("Cookie", sessionCookie).GET().build();
+    }
+
+    public static HttpRequest sendJson(String method, String url, String sessionCookie, String json) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .header("Cookie", sessionCookie)
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private ClientResult runClient(int client, long firstSend, long intervalNanos, long recordFrom, long end,
+                                   RequestPlan plan) {
+        Map<String, Recorder> recorders = new HashMap<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long due = firstSend;
+        long now = System.nanoTime();
+        while (due < end && now < end) {
+            while (now < due) {
+                LockSupport.parkNanos(due - now);
+                now = System.nanoTime();
+            }
+            Request request = plan.next(client, random);
+            boolean ok;
+            try {
+                HttpResponse<Void> response = httpClient.send(request.httpRequest(), HttpResponse.BodyHandlers.discarding());
+                ok = response.statusCode() < 400;
+            } catch (Exception e) {
+                ok = false;
+            }
+            long finished = System.nanoTime();
+            if (due >= recordFrom) {
+                recorders.computeIfAbsent(request.endpoint(), key -> new Recorder())
+                        .record((finished - due) / 1_000, ok);
+            }
+            due += intervalNanos;
+            now = finished;
+        }
+        // Due within the measurement but cut off by a client that had fallen behind
+        long unsent = 0;
+        for (; due < end; due += intervalNanos) {
+            if (due >= recordFrom) {
+                unsent++;
+            }
+        }
+        return new ClientResult(recorders, unsent);
+    }
+
+    private record ClientResult(Map<String, Recorder> recorders, long unsent) {
+    }
+
+    /**
+     * Latency samples (microseconds) and error count of one endpoint.
+     */
+    public static final class Recorder {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        void record(long latencyMicros, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyMicros;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        void addAll(Recorder other) {
+            if (count + other.count > latencies.length) {
+                latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, count + other.count));
+            }
+            System.arraycopy(other.latencies, 0, latencies, count, other.count);
+            count += other.count;
+            errors += other.errors;
+        }
+    }
+
+    public record Report(int concurrency, double targetRate, Duration duration, Map<String, Recorder> endpoints,
+                         long unsent) {
+
+        public void print(PrintStream out, String title) {
+            out.printf("%n%s (%d clients, target %.0f req/s, %.1fs)%n",
+                    title, concurrency, targetRate, duration.toNanos() / 1e9);
+            out.printf("%-28s %10s %8s %10s %9s %9s %9s %9s%n",
+                    "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+            Recorder total = new Recorder();
+            endpoints.forEach((endpoint, recorder) -> {
+                printRow(out, endpoint, recorder);
+                total.addAll(recorder);
+            });
+            printRow(out, "total", total);
+            if (unsent > 0) {
+                out.printf("%d requests were due but never sent: the clients could not keep up with the target rate%n",
+                        unsent);
+            }
+        }
+
+        private void printRow(PrintStream out, String endpoint, Recorder recorder) {
+            long[] sorted = Arrays.copyOf(recorder.latencies, recorder.count);
+            Arrays.sort(sorted);
+            out.printf("%-28s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    endpoint, recorder.count, recorder.errors,
+                    recorder.count * 1e9 / duration.toNanos(),
+                    percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99),
+                    sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1000.0);
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.DevPlayground.loadtest;
+
+import com.example.DevPlayground.DevPlaygroundApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * End-to-end load test: boots the application with the loadtest profile (in-memory H2 seeded by
+ * {@link LoadTestDataSeeder}) and drives a mix of login, todo and admin traffic at it.
+ * <p>
+ * Each client uses the session of one seeded user and reads and writes that user's todos; the admin listing
+ * uses a separate admin session. The login share goes to the other half of the seeded users, so fresh logins
+ * never replace a session that clients are still using under the one-session-per-user limit.
+ * <p>
+ * Run with {@code ./gradlew loadTest}; -Ploadtest.rate (requests per second), -Ploadtest.concurrency,
+ * -Ploadtest.warmup, -Ploadtest.duration (ISO-8601, e.g. PT30S), -Ploadtest.users and -Ploadtest.todos
+ * override the defaults.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = Integer.getInteger("loadtest.concurrency", 200);
+        double rate = Double.parseDouble(System.getProperty("loadtest.rate", "1000"));
+        Duration warmup = Duration.parse(System.getProperty("loadtest.warmup", "PT10S"));
+        Duration duration = Duration.parse(System.getProperty("loadtest.duration", "PT60S"));
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DevPlaygroundApplication.class)
+                .profiles("loadtest")
+                .run(args)) {
+            LoadTestDataSeeder seeder = context.getBean(LoadTestDataSeeder.class);
+            if (seeder.getUsers() < 2) {
+                throw new IllegalArgumentException("loadtest.users must be at least 2");
+            }
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+            LoadDriver loadDriver = new LoadDriver(httpClient);
+
+            int sessionUsers = seeder.getUsers() / 2;
+            String[] sessionCookies = new String[sessionUsers];
+            for (int i = 0; i < sessionUsers; i++) {
+                sessionCookies[i] = loadDriver.login(baseUrl, LoadTestDataSeeder.username(i), seeder.getPassword());
+            }
+            String adminCookie = loadDriver.login(baseUrl, LoadTestDataSeeder.ADMIN, seeder.getPassword());
+            List<Long> todoIds = seeder.getTodoIds();
+
+            LoadDriver.Report report = loadDriver.run(concurrency, rate, warmup, duration, (client, random) -> {
+                int user = client % sessionUsers;
+                String username = LoadTestDataSeeder.username(user);
+                String cookie = sessionCookies[user];
+                int pick = random.nextInt(100);
+                if (pick < 10) {
+                    String loginUser = LoadTestDataSeeder.username(
+                            sessionUsers + random.nextInt(seeder.getUsers() - sessionUsers));
+                    return new LoadDriver.Request("POST /api/login",
+                            LoadDriver.loginRequest(baseUrl, loginUser, seeder.getPassword()));
+                }
+                if (pick < 45) {
+                    return new LoadDriver.Request("GET /api/todo/{id}",
+                            LoadDriver.get(baseUrl + "/api/todo/" + randomTodo(todoIds, random), cookie));
+                }
+                if (pick < 75) {
+                    return new LoadDriver.Request("GET /api/todo/user/{u}/page",
+                            LoadDriver.get(baseUrl + "/api/todo/user/" + username + "/page?size=20", cookie));
+                }
+                if (pick < 85) {
+                    return new LoadDriver.Request("POST /api/todo/create",
+                            LoadDriver.sendJson("POST", baseUrl + "/api/todo/create", cookie,
+                                    "{\"userName\":\"" + username + "\",\"title\":\"load " + client
+                                            + "\",\"status\":\"PENDING\"}"));
+                }
+                if (pick < 95) {
+                    return new LoadDriver.Request("PUT /api/todo/update/{id}/status",
+                            LoadDriver.sendJson("PUT", baseUrl + "/api/todo/update/" + randomTodo(todoIds, random)
+                                    + "/status", cookie, "{\"status\":\"IN_PROGRESS\"}"));
+                }
+                return new LoadDriver.Request("GET /api/admin/users",
+                        LoadDriver.get(baseUrl + "/api/admin/users", adminCookie));
+            });
+            report.print(System.out, "Load test (" + seeder.getUsers() + " users, " + todoIds.size() + " todos)");
+        }
+    }
+
+    private static long randomTodo(List<Long> todoIds, ThreadLocalRandom random) {
+        return todoIds.get(random.nextInt(todoIds.size()));
+    }
+}
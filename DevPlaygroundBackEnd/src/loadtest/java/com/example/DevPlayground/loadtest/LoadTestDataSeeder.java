@@ -0,0 +1,82 @@
+package com.example.DevPlayground.loadtest;
+
+import com.example.DevPlayground.entity.Role;
+import com.example.DevPlayground.entity.Todo;
+import com.example.DevPlayground.entity.TodoStatus;
+import com.example.DevPlayground.service.TodoService;
+import com.example.DevPlayground.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Seeds the loadtest profile's database with {@code loadtest.users} users, one admin and {@code loadtest.todos}
+ * todos spread over the users, through the same services as DataInitializer.
+ */
+@Component
+@Profile("loadtest")
+public class LoadTestDataSeeder implements CommandLineRunner {
+
+    public static final String ADMIN = "loadadmin";
+    private static final int BATCH_SIZE = 500;
+
+    private final UserService userService;
+    private final TodoService todoService;
+    private final int users;
+    private final int todos;
+    private final String password;
+    private final List<Long> todoIds = new ArrayList<>();
+
+    @Autowired
+    public LoadTestDataSeeder(UserService userService,
+                              TodoService todoService,
+                              @Value("${loadtest.users}") int users,
+                              @Value("${loadtest.todos}") int todos,
+                              @Value("${loadtest.password}") String password) {
+        this.userService = userService;
+        this.todoService = todoService;
+        this.users = users;
+        this.todos = todos;
+        this.password = password;
+    }
+
+    public static String username(int index) {
+        return "loaduser" + index;
+    }
+
+    @Override
+    public void run(String... args) {
+        for (int i = 0; i < users; i++) {
+            userService.createUser(username(i), username(i) + "@example.com", password, Role.USER);
+        }
+        userService.createUser(ADMIN, ADMIN + "@example.com", password, Role.ADMIN);
+
+        for (int batch = 0; batch < todos; batch += BATCH_SIZE) {
+            List<Todo> toCreate = new ArrayList<>(BATCH_SIZE);
+            for (int i = batch; i < Math.min(todos, batch + BATCH_SIZE); i++) {
+                toCreate.add(todoService.newTodo(username(i % users), "Seeded todo " + i, "Description " + i,
+                        TodoStatus.values()[i % TodoStatus.values().length], null));
+            }
+            todoService.applyBulk(toCreate, Map.of(), List.of()).created()
+                    .forEach(todo -> todoIds.add(todo.getId()));
+        }
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public List<Long> getTodoIds() {
+        return todoIds;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.DevPlayground.loadtest;
+
+import com.example.DevPlayground.DevPlaygroundApplication;
+import com.example.DevPlayground.entity.Role;
+import com.example.DevPlayground.entity.Todo;
+import com.example.DevPlayground.entity.TodoStatus;
+import com.example.DevPlayground.service.TodoService;
+import com.example.DevPlayground.service.UserService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Boots the application twice in this JVM, once on Tomcat's platform-thread pool and once with
+ * spring.threads.virtual.enabled, and drives the same request mix at both: database-backed todo reads and
+ * writes, a session-only request that never touches the database, and logins that are bound by password
+ * hashing.
+ * <p>
+ * The connection pool size is set explicitly, because once request threads are no longer the limit the
+ * pool is; each report is followed by how long requests waited for a pooled connection during the
+ * measurement, which tells a pool-bound run from a thread-bound one.
+ * <p>
+ * Run with {@code ./gradlew threadModeBenchmark}; -Ploadtest.rate (requests per second),
+ * -Ploadtest.concurrency, -Ploadtest.warmup, -Ploadtest.duration (ISO-8601, e.g. PT30S) and
+ * -Ploadtest.pool-size override the defaults. Concurrency well above Tomcat's 200 worker threads is where
+ * the modes differ.
+ */
+public class ThreadModeBenchmark {
+
+    private static final String USER = "user";
+    private static final String PASSWORD = "password";
+    private static final int SEEDED_TODOS = 1_000;
+    // Logins go to their own users, so they never replace the benchmark session under maximumSessions(1)
+    private static final int LOGIN_USERS = 20;
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = Integer.getInteger("loadtest.concurrency", 1_000);
+        double rate = Double.parseDouble(System.getProperty("loadtest.rate", "5000"));
+        Duration warmup = Duration.parse(System.getProperty("loadtest.warmup", "PT10S"));
+        Duration duration = Duration.parse(System.getProperty("loadtest.duration", "PT30S"));
+        int poolSize = Integer.getInteger("loadtest.pool-size", 20);
+
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext context = start(virtualThreads, poolSize)) {
+                List<Long> todoIds = seed(context.getBean(TodoService.class));
+                UserService userService = context.getBean(UserService.class);
+                for (int i = 0; i < LOGIN_USERS; i++) {
+                    userService.createUser("login" + i, "login" + i + "@example.com", PASSWORD, Role.USER);
+                }
+                String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+                HttpClient httpClient = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .executor(Executors.newVirtualThreadPerTaskExecutor())
+                        .build();
+                LoadDriver loadDriver = new LoadDriver(httpClient);
+                String sessionCookie = loadDriver.login(baseUrl, USER, PASSWORD);
+
+                LoadDriver.RequestPlan plan = (client, random) -> {
+                    int pick = random.nextInt(100);
+                    if (pick < 40) {
+                        long id = todoIds.get(random.nextInt(todoIds.size()));
+                        return new LoadDriver.Request("GET /api/todo/{id}",
+                                LoadDriver.get(baseUrl + "/api/todo/" + id, sessionCookie));
+                    }
+                    if (pick < 60) {
+                        return new LoadDriver.Request("GET /api/todo/user/{u}/page",
+                                LoadDriver.get(baseUrl + "/api/todo/user/" + USER + "/page?size=20", sessionCookie));
+                    }
+                    if (pick < 70) {
+                        return new LoadDriver.Request("POST /api/todo/create",
+                                LoadDriver.sendJson("POST", baseUrl + "/api/todo/create", sessionCookie,
+                                        "{\"userName\":\"" + USER + "\",\"title\":\"load " + client
+                                                + "\",\"status\":\"PENDING\"}"));
+                    }
+                    if (pick < 90) {
+                        // Answered from the session alone
+                        return new LoadDriver.Request("GET /api/current-user",
+                                LoadDriver.get(baseUrl + "/api/current-user", sessionCookie));
+                    }
+                    return new LoadDriver.Request("POST /api/login",
+                            LoadDriver.loginRequest(baseUrl, "login" + random.nextInt(LOGIN_USERS), PASSWORD));
+                };
+                // Warm up separately, so that the pool statistics below cover only the measured run
+                loadDriver.run(concurrency, rate, Duration.ZERO, warmup, plan);
+                MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+                PoolStatistics before = PoolStatistics.read(meterRegistry);
+                LoadDriver.Report report = loadDriver.run(concurrency, rate, Duration.ZERO, duration, plan);
+                PoolStatistics during = PoolStatistics.read(meterRegistry).minus(before);
+                report.print(System.out, (virtualThreads ? "Virtual threads" : "Platform threads (Tomcat pool)")
+                        + ", " + poolSize + " connections");
+                during.print(System.out);
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtualThreads, int poolSize) {
+        String mode = virtualThreads ? "virtual" : "platform";
+        return new SpringApplicationBuilder(DevPlaygroundApplication.class)
+                .properties(Map.of(
+                        "server.port", "0",
+                        // Pool statistics are read from the registry; no management endpoint needed
+                        "management.server.port", "-1",
+                        "spring.datasource.hikari.maximum-pool-size", Integer.toString(poolSize),
+                        "spring.threads.virtual.enabled", Boolean.toString(virtualThreads),
+                        "spring.datasource.url", "jdbc:h2:mem:thread-mode-" + mode,
+                        // The benchmark reuses one session; throttling it would measure the limiter instead
+                        "security.rate-limit.enabled", "false",
+                        "spring.main.banner-mode", "off",
+                        "logging.level.root", "WARN"))
+                .run();
+    }
+
+    private static List<Long> seed(TodoService todoService) {
+        List<Long> ids = new ArrayList<>(SEEDED_TODOS);
+        for (int batch = 0; batch < SEEDED_TODOS; batch += 500) {
+            List<Todo> todos = new ArrayList<>(500);
+            for (int i = batch; i < batch + 500; i++) {
+                todos.add(todoService.newTodo(USER, "Seeded todo " + i, "Description " + i,
+                        TodoStatus.PENDING, null));
+            }
+            todoService.applyBulk(todos, Map.of(), List.of()).created()
+                    .forEach(todo -> ids.add(todo.getId()));
+        }
+        return ids;
+    }
+
+    /**
+     * Cumulative hikaricp.connections.acquire and .timeout values; subtracting two readings gives the
+     * figures for the time in between.
+     */
+    private record PoolStatistics(long acquisitions, double acquireMillis, double timeouts) {
+
+        static PoolStatistics read(MeterRegistry meterRegistry) {
+            Timer acquire = meterRegistry.find("hikaricp.connections.acquire").timer();
+            Counter timeout = meterRegistry.find("hikaricp.connections.timeout").counter();
+            return new PoolStatistics(acquire == null ? 0 : acquire.count(),
+                    acquire == null ? 0 : acquire.totalTime(TimeUnit.MILLISECONDS),
+                    timeout == null ? 0 : timeout.count());
+        }
+
+        PoolStatistics minus(PoolStatistics earlier) {
+            return new PoolStatistics(acquisitions - earlier.acquisitions,
+                    acquireMillis - earlier.acquireMillis, timeouts - earlier.timeouts);
+        }
+
+        void print(PrintStream out) {
+            out.printf("hikaricp.connections.acquire: %d acquisitions, mean %.3f ms, total %.0f ms, %.0f timeouts%n",
+                    acquisitions, acquisitions == 0 ? 0 : acquireMillis / acquisitions, acquireMillis, timeouts);
+        }
+    }
+}
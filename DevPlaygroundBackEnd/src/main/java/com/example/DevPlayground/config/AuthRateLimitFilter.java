@@ -0,0 +1,185 @@
+package com.example.DevPlayground.config;
+
+import com.example.DevPlayground.service.AuthRateLimiter;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Applies {@link AuthRateLimiter} to POST /api/login and /api/auth/passkey/** ahead of authentication.
+ * <p>
+ * The client IP is checked first, so a throttled client is turned away before its body is read. The username
+ * comes from the {@code username} parameter or, for JSON requests, from the top-level {@code username} field;
+ * the body is buffered only up to {@link #MAX_BUFFERED_BODY} bytes and replayed to the controller.
+ * The client IP is the remote address, so behind a proxy set server.forward-headers-strategy.
+ */
+public class AuthRateLimitFilter extends OncePerRequestFilter {
+
+    private static final int MAX_BUFFERED_BODY = 16 * 1024;
+    private static final int MAX_USERNAME_LENGTH = 256;
+
+    private final AuthRateLimiter authRateLimiter;
+    private final JsonFactory jsonFactory;
+
+    public AuthRateLimitFilter(AuthRateLimiter authRateLimiter, JsonFactory jsonFactory) {
+        this.authRateLimiter = authRateLimiter;
+        this.jsonFactory = jsonFactory;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!authRateLimiter.isEnabled() || !HttpMethod.POST.matches(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !path.equals("/api/login") && !path.startsWith("/api/auth/passkey/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String clientIp = request.getRemoteAddr();
+        Duration wait = authRateLimiter.tryAcquireIp(clientIp);
+        if (!wait.isZero()) {
+            reject(response, wait);
+            return;
+        }
+
+        HttpServletRequest forwarded = request;
+        String username = request.getParameter("username");
+        if (username == null && isJson(request)) {
+            byte[] head = request.getInputStream().readNBytes(MAX_BUFFERED_BODY);
+            forwarded = new ReplayingRequest(request, head);
+            username = extractUsername(head);
+        }
+        if (username != null && !username.isBlank()) {
+            String key = username.length() > MAX_USERNAME_LENGTH ? username.substring(0, MAX_USERNAME_LENGTH) : username;
+            wait = authRateLimiter.tryAcquireUsername(key, clientIp);
+            if (!wait.isZero()) {
+                reject(response, wait);
+                return;
+            }
+        }
+        filterChain.doFilter(forwarded, response);
+    }
+
+    private boolean isJson(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            return MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the top-level "username" string, or null. A body cut off at the buffer limit still works as
+     * long as the field comes before the cut.
+     */
+    private String extractUsername(byte[] body) {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            String field;
+            while ((field = parser.nextFieldName()) != null) {
+                if (field.equals("username")) {
+                    return parser.nextTextValue();
+                }
+                parser.nextToken();
+                parser.skipChildren();
+            }
+        } catch (IOException e) {
+            // Malformed or truncated before the field; the controller reports the bad request
+        }
+        return null;
+    }
+
+    private void reject(HttpServletResponse response, Duration wait) throws IOException {
+        long seconds = Math.max(1, (wait.toMillis() + 999) / 1000);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        response.setContentType("application/json");
+        response.getWriter().write("{\"error\":\"Too many requests\"}");
+    }
+
+    /**
+     * Serves the buffered head of the body followed by whatever was not read yet.
+     */
+    private static final class ReplayingRequest extends HttpServletRequestWrapper {
+        private final InputStream body;
+
+        ReplayingRequest(HttpServletRequest request, byte[] head) throws IOException {
+            super(request);
+            this.body = new SequenceInputStream(new ByteArrayInputStream(head), request.getInputStream());
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return new ServletInputStream() {
+                private boolean finished;
+
+                @Override
+                public int read() throws IOException {
+                    int b = body.read();
+                    finished = b < 0;
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int n = body.read(b, off, len);
+                    finished = n < 0;
+                    return n;
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return finished;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException("Non-blocking reads are not supported");
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(body, charset));
+        }
+    }
+}
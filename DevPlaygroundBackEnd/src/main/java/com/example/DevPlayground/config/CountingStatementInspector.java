@@ -0,0 +1,16 @@
+package com.example.DevPlayground.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts every SQL statement Hibernate prepares towards the current request; see {@link RequestQueryMetricsFilter}.
+ * Installed by {@link QueryMetricsConfig}.
+ */
+public class CountingStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        RequestQueryMetricsFilter.statementPrepared();
+        return sql;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.DevPlayground.config;
+
+import com.webauthn4j.WebAuthnManager;
+import com.webauthn4j.converter.util.ObjectConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * PasskeyのAPIで使うwebauthn4jのオブジェクト
+ * どちらもスレッドセーフで、作成コストが高いためアプリケーションで1つずつ共有する
+ */
+@Configuration
+public class PasskeyConfig {
+
+    @Bean
+    public ObjectConverter webAuthnObjectConverter() {
+        return new ObjectConverter();
+    }
+
+    /**
+     * attestationの証明書チェーンは検証しない（自己署名・noneのattestationを受け入れる）
+     */
+    @Bean
+    public WebAuthnManager webAuthnManager(ObjectConverter webAuthnObjectConverter) {
+        return WebAuthnManager.createNonStrictWebAuthnManager(webAuthnObjectConverter);
+    }
+}
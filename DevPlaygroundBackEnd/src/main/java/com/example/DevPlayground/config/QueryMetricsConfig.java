@@ -0,0 +1,66 @@
+package com.example.DevPlayground.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.List;
+
+/**
+ * Wires up {@link RequestQueryMetricsFilter}: Hibernate reports statements through
+ * {@link CountingStatementInspector} and entity loads through a POST_LOAD listener, both installed while
+ * the session factory is built.
+ */
+@Configuration
+public class QueryMetricsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCountingHibernateProperties() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new CountingStatementInspector());
+            properties.put(JpaSettings.INTEGRATOR_PROVIDER, (IntegratorProvider) () -> List.of(new EntityLoadCounting()));
+        };
+    }
+
+    /**
+     * Runs ahead of Spring Session and Spring Security, so the queries they issue (session rows, user lookups)
+     * count towards the request too.
+     */
+    @Bean
+    public FilterRegistrationBean<RequestQueryMetricsFilter> requestQueryMetricsFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<RequestQueryMetricsFilter> registration =
+                new FilterRegistrationBean<>(new RequestQueryMetricsFilter(meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    private static final class EntityLoadCounting implements Integrator {
+
+        @Override
+        public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                              SessionFactoryImplementor sessionFactory) {
+            sessionFactory.getServiceRegistry()
+                    .getService(EventListenerRegistry.class)
+                    .appendListeners(EventType.POST_LOAD,
+                            (PostLoadEventListener) event -> RequestQueryMetricsFilter.entityLoaded());
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.DevPlayground.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records how many SQL statements and entity loads each request causes, tagged like http.server.requests
+ * ({@code method}, {@code uri} pattern), as the distribution summaries {@code http.server.requests.statements}
+ * and {@code http.server.requests.entity.loads}. A high count on one endpoint points at N+1 loading.
+ * <p>
+ * Counting is per request thread: work handed to other threads (streaming responses, async events) is not
+ * attributed to the request. Hibernate's global counters are published separately as {@code hibernate.*}.
+ * <p>
+ * The counting hooks and the filter registration live in {@link QueryMetricsConfig}.
+ */
+public class RequestQueryMetricsFilter extends OncePerRequestFilter {
+
+    private static final ThreadLocal<Counts> CURRENT = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+
+    public RequestQueryMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    static void statementPrepared() {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.statements++;
+        }
+    }
+
+    static void entityLoaded() {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.entityLoads++;
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Counts counts = new Counts();
+        CURRENT.set(counts);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            CURRENT.remove();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            summary("http.server.requests.statements", "SQL statements prepared per request", request, uri)
+                    .record(counts.statements);
+            summary("http.server.requests.entity.loads", "Entities loaded per request", request, uri)
+                    .record(counts.entityLoads);
+        }
+    }
+
+    private DistributionSummary summary(String name, String description, HttpServletRequest request, String uri) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry);
+    }
+
+    private static final class Counts {
+        long statements;
+        long entityLoads;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.DevPlayground.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled methods; they run on the auto-configured taskScheduler.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
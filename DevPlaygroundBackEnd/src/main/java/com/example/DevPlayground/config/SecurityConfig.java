@@ -1,10 +1,18 @@
 package com.example.DevPlayground.config;
 
+import com.example.DevPlayground.service.AuthRateLimiter;
+import com.example.DevPlayground.service.BoundedPasswordEncoder;
+import com.example.DevPlayground.service.ConcurrentSessionRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -12,30 +20,61 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.session.SessionRegistry;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.session.HttpSessionEventPublisher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
 public class SecurityConfig {
 
+    /**
+     * New hashes use bcrypt with the configured cost; hashes in any other format Spring Security knows are still
+     * accepted and are re-encoded on the next successful login (see {@link #authenticationManager}).
+     * Hashing runs on a bounded pool so that a login burst cannot occupy every request thread.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return PasswordEncoderFactories.createDelegatingPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${security.password.bcrypt-strength:10}") int bcryptStrength,
+            @Value("${security.password.hashing.threads:0}") int threads,
+            @Value("${security.password.hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${security.password.hashing.timeout:5s}") Duration timeout,
+            MeterRegistry meterRegistry) {
+        DelegatingPasswordEncoder delegatingPasswordEncoder = new DelegatingPasswordEncoder(
+                "bcrypt", Map.of("bcrypt", new BCryptPasswordEncoder(bcryptStrength)));
+        delegatingPasswordEncoder.setDefaultPasswordEncoderForMatches(
+                PasswordEncoderFactories.createDelegatingPasswordEncoder());
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(delegatingPasswordEncoder, poolSize, queueCapacity, timeout, meterRegistry);
     }
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   AuthRateLimiter authRateLimiter,
+                                                   ObjectMapper objectMapper,
+                                                   SessionRegistry sessionRegistry) throws Exception {
         http
+                // Throttles the permitAll login/passkey endpoints before any password hashing or lookup happens
+                .addFilterBefore(new AuthRateLimitFilter(authRateLimiter, objectMapper.getFactory()),
+                        UsernamePasswordAuthenticationFilter.class)
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .csrf(AbstractHttpConfigurer::disable)
                 .headers(headers -> headers
@@ -48,6 +87,9 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.POST, "/api/auth/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/current-user").authenticated()
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                        // Only served on the loopback-bound management port (management.server.*)
+                        .requestMatchers(HttpMethod.GET, "/actuator/prometheus").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.GET, "/api/*").authenticated()
                         .requestMatchers(HttpMethod.GET, "/error").permitAll()
                         .anyRequest().authenticated()
@@ -56,6 +98,7 @@ public class SecurityConfig {
                         .sessionCreationPolicy(SessionCreationPolicy.IF_REQUIRED)
                         .maximumSessions(1)
                         .maxSessionsPreventsLogin(false)
+                        .sessionRegistry(sessionRegistry)
                 )
                 .webAuthn((webAuthn) -> webAuthn
                         .rpName("Spring Security Relying Party") // TODO replace
@@ -73,17 +116,54 @@ public class SecurityConfig {
                         })
                         .invalidateHttpSession(true)
                         .clearAuthentication(true)
-                        .deleteCookies("JSESSIONID")
+                        .deleteCookies("JSESSIONID", "SESSION")
                 );
         return http.build();
     }
 
+    /**
+     * Consulted by the concurrent session filter on every authenticated request; see {@link ConcurrentSessionRegistry}.
+     * With app.session.store=jdbc, {@link SessionConfig} provides a registry backed by the shared store instead.
+     */
+    @Bean
+    @ConditionalOnExpression("'${app.session.store:memory}' != 'jdbc'")
+    public ConcurrentSessionRegistry sessionRegistry() {
+        return new ConcurrentSessionRegistry();
+    }
+
+    /**
+     * Turns container (or Spring Session) session destruction and id changes into the events that keep the
+     * session registry from accumulating dead sessions.
+     */
+    @Bean
+    public HttpSessionEventPublisher httpSessionEventPublisher() {
+        return new HttpSessionEventPublisher();
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(
             UserDetailsService userDetailsService,
+            UserDetailsPasswordService userDetailsPasswordService,
             PasswordEncoder passwordEncoder) {
-        DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider(userDetailsService);
+        DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider(userDetailsService) {
+            @Override
+            protected Authentication createSuccessAuthentication(Object principal, Authentication authentication,
+                                                                 UserDetails user) {
+                try {
+                    return super.createSuccessAuthentication(principal, authentication, user);
+                } catch (BoundedPasswordEncoder.HashingRejectedException e) {
+                    // The password has already been verified; only the re-hash was turned away by a saturated
+                    // pool. Log the user in with the old hash and leave the upgrade to a later login.
+                    UsernamePasswordAuthenticationToken result = UsernamePasswordAuthenticationToken.authenticated(
+                            principal, authentication.getCredentials(), user.getAuthorities());
+                    result.setDetails(authentication.getDetails());
+                    return result;
+                }
+            }
+        };
         authenticationProvider.setPasswordEncoder(passwordEncoder);
+        // Re-hashes the password after a successful login when the stored hash is weaker than the current cost
+        authenticationProvider.setUserDetailsPasswordService(userDetailsPasswordService);
 
         return new ProviderManager(authenticationProvider);
     }
@@ -93,7 +173,7 @@ public class SecurityConfig {
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOrigins(List.of("http://localhost:5173"));
-        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(List.of("*"));
         configuration.setAllowCredentials(true);
 
@@ -0,0 +1,54 @@
+package com.example.DevPlayground.config;
+
+import com.example.DevPlayground.repository.StoredSessionRepository;
+import com.example.DevPlayground.service.SessionAttributeCodec;
+import com.example.DevPlayground.service.SharedSessionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+import org.springframework.session.security.SpringSessionBackedSessionRegistry;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+
+/**
+ * Replaces the container's in-memory HttpSession with {@link SharedSessionRepository} when
+ * app.session.store=jdbc, so that nodes behind a load balancer share sessions without sticky routing.
+ * With the default (memory) sessions stay in Tomcat as before.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.session.store", havingValue = "jdbc")
+@EnableSpringHttpSession
+public class SessionConfig {
+
+    /**
+     * Session concurrency control reads a user's sessions from the shared table, so maximumSessions holds across
+     * nodes and a session expired on one node is rejected by all of them.
+     */
+    @Bean
+    public SpringSessionBackedSessionRegistry<SharedSessionRepository.SharedSession> sessionRegistry(
+            SharedSessionRepository sessionRepository) {
+        return new SpringSessionBackedSessionRegistry<>(sessionRepository);
+    }
+
+    @Bean
+    public SharedSessionRepository sessionRepository(
+            StoredSessionRepository storedSessionRepository,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${server.servlet.session.timeout:30m}") Duration maxInactiveInterval,
+            @Value("${app.session.last-access-write-interval:1m}") Duration accessWriteInterval,
+            @Value("${app.session.near-cache.maximum-size:10000}") long nearCacheMaximumSize,
+            @Value("${app.session.near-cache.ttl:10m}") Duration nearCacheTtl,
+            @Value("${app.session.purge-chunk-size:500}") int purgeChunkSize) {
+        return new SharedSessionRepository(storedSessionRepository,
+                new SessionAttributeCodec(SharedSessionRepository.class.getClassLoader()),
+                eventPublisher, transactionManager, meterRegistry,
+                maxInactiveInterval, accessWriteInterval, nearCacheMaximumSize, nearCacheTtl, purgeChunkSize);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.DevPlayground.controller;
+
+import com.example.DevPlayground.service.BoundedPasswordEncoder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Answers every request whose password hashing was turned away by {@link BoundedPasswordEncoder} with
+ * 503 and Retry-After, whichever endpoint did the hashing, so that overload is never reported as a 500 or
+ * as a failed login.
+ */
+@RestControllerAdvice
+public class HashingRejectedHandler {
+
+    static final String RETRY_AFTER_SECONDS = "1";
+
+    @ExceptionHandler(BoundedPasswordEncoder.HashingRejectedException.class)
+    public ResponseEntity<Void> hashingRejected() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .build();
+    }
+}
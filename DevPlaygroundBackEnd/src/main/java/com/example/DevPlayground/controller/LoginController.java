@@ -7,6 +7,8 @@ import com.example.DevPlayground.dto.PasskeyLoginStartResponse;
 import com.example.DevPlayground.dto.PasskeyLoginFinishRequest;
 import com.example.DevPlayground.dto.PasskeyLoginFinishResponse;
 import com.example.DevPlayground.service.PasskeyService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -29,6 +31,8 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/api")
 public class LoginController {
 
+    private static final Logger log = LoggerFactory.getLogger(LoginController.class);
+
     private final AuthenticationManager authenticationManager;
     private final PasskeyService passkeyService;
 
@@ -42,8 +46,8 @@ public class LoginController {
     public ResponseEntity<LoginResponse> login(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
         Authentication authenticationRequest =
                 UsernamePasswordAuthenticationToken.unauthenticated(loginRequest.username(), loginRequest.password());
-        Authentication authenticationResponse =
-                this.authenticationManager.authenticate(authenticationRequest);
+        // Too many logins being hashed right now is answered with 503 by HashingRejectedHandler, not as a failed login
+        Authentication authenticationResponse = this.authenticationManager.authenticate(authenticationRequest);
         
         SecurityContextHolder.getContext().setAuthentication(authenticationResponse);
         
@@ -72,11 +76,10 @@ public class LoginController {
         
         if (authentication != null && authentication.isAuthenticated() && 
             !authentication.getName().equals("anonymousUser")) {
-            System.out.println("Current user authorities: " + authentication.getAuthorities());
             String[] roles = authentication.getAuthorities().stream()
                     .map(authority -> authority.getAuthority().replace("ROLE_", ""))
                     .toArray(String[]::new);
-            System.out.println("Processed roles: " + java.util.Arrays.toString(roles));
+            log.debug("Current user {} with authorities {}", authentication.getName(), authentication.getAuthorities());
             UserInfo userInfo = new UserInfo(authentication.getName(), authentication.getAuthorities().toString(), roles);
             return ResponseEntity.ok(userInfo);
         }
@@ -87,11 +90,11 @@ public class LoginController {
     @PostMapping("/auth/passkey/register/start")
     public ResponseEntity<PasskeyRegistrationStartResponse> startPasskeyRegistration(@RequestParam String username) {
         try {
-            System.out.println("Starting passkey registration for user: " + username);
+            log.debug("Starting passkey registration for user {}", username);
             PasskeyRegistrationStartResponse response = passkeyService.startRegistration(username);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            System.err.println("Error starting passkey registration: " + e.getMessage());
+            log.warn("Error starting passkey registration for user {}: {}", username, e.getMessage());
             return ResponseEntity.badRequest().build();
         }
     }
@@ -99,11 +102,11 @@ public class LoginController {
     @PostMapping("/auth/passkey/register/finish")
     public ResponseEntity<PasskeyRegistrationFinishResponse> finishPasskeyRegistration(@RequestBody PasskeyRegistrationFinishRequest request) {
         try {
-            System.out.println("Finishing passkey registration for user: " + request.getUsername());
+            log.debug("Finishing passkey registration for user {}", request.getUsername());
             PasskeyRegistrationFinishResponse response = passkeyService.finishRegistration(request);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            System.err.println("Error finishing passkey registration: " + e.getMessage());
+            log.warn("Error finishing passkey registration for user {}: {}", request.getUsername(), e.getMessage());
             PasskeyRegistrationFinishResponse errorResponse = new PasskeyRegistrationFinishResponse(false, "Registration failed: " + e.getMessage());
             return ResponseEntity.badRequest().body(errorResponse);
         }
@@ -112,11 +115,11 @@ public class LoginController {
     @PostMapping("/auth/passkey/login/start")
     public ResponseEntity<PasskeyLoginStartResponse> startPasskeyLogin(@RequestParam String username) {
         try {
-            System.out.println("Starting passkey login for user: " + username);
+            log.debug("Starting passkey login for user {}", username);
             PasskeyLoginStartResponse response = passkeyService.startLogin(username);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            System.err.println("Error starting passkey login: " + e.getMessage());
+            log.warn("Error starting passkey login for user {}: {}", username, e.getMessage());
             return ResponseEntity.badRequest().build();
         }
     }
@@ -124,7 +127,7 @@ public class LoginController {
     @PostMapping("/auth/passkey/login/finish")
     public ResponseEntity<PasskeyLoginFinishResponse> finishPasskeyLogin(@RequestBody PasskeyLoginFinishRequest request, HttpServletRequest httpRequest) {
         try {
-            System.out.println("Finishing passkey login for user: " + request.getUsername());
+            log.debug("Finishing passkey login for user {}", request.getUsername());
             PasskeyLoginFinishResponse response = passkeyService.finishLogin(request);
             
             if (response.isSuccess()) {
@@ -140,13 +143,17 @@ public class LoginController {
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            System.err.println("Error finishing passkey login: " + e.getMessage());
+            log.warn("Error finishing passkey login for user {}: {}", request.getUsername(), e.getMessage());
             PasskeyLoginFinishResponse errorResponse = new PasskeyLoginFinishResponse(false, "Login failed: " + e.getMessage(), null);
             return ResponseEntity.badRequest().body(errorResponse);
         }
     }
 
     public record LoginRequest(String username, String password) {
+        @Override
+        public String toString() {
+            return "LoginRequest[username=" + username + ", password=[REDACTED]]";
+        }
     }
     
     public record LoginResponse(boolean success, String username) {
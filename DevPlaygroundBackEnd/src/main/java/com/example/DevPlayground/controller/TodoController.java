@@ -1,55 +1,258 @@
 package com.example.DevPlayground.controller;
 
+import com.example.DevPlayground.dto.TodoPageResponse;
+import com.example.DevPlayground.dto.TodoStats;
+import com.example.DevPlayground.dto.TodoSummary;
 import com.example.DevPlayground.entity.Todo;
+import com.example.DevPlayground.entity.TodoStatus;
+import com.example.DevPlayground.service.TodoEventBroadcaster;
 import com.example.DevPlayground.service.TodoService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/todo")
 public class TodoController {
 
+    // Rows per import transaction; stays below TodoService.MAX_BULK_OPERATIONS
+    private static final int IMPORT_BATCH_SIZE = 500;
+    private static final int MAX_IMPORT_ERRORS = 100;
+
     private final TodoService todoService;
+    private final TodoEventBroadcaster todoEventBroadcaster;
+    private final ObjectMapper objectMapper;
+    // Streamed rows are flushed by the generator's buffer, not once per row
+    private final ObjectWriter rowWriter;
+    private final ObjectReader importReader;
 
     @Autowired
-    public TodoController(TodoService todoService) {
+    public TodoController(TodoService todoService, TodoEventBroadcaster todoEventBroadcaster, ObjectMapper objectMapper) {
         this.todoService = todoService;
+        this.todoEventBroadcaster = todoEventBroadcaster;
+        this.objectMapper = objectMapper;
+        this.rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.importReader = objectMapper.readerFor(TodoRequest.class);
     }
 
     @PostMapping("/create")
     public ResponseEntity<Todo> createTodo(@RequestBody TodoRequest request) {
-
-        // Validate required fields
-        if (request.userName() == null || request.userName().trim().isEmpty()) {
-            throw new IllegalArgumentException("UserName cannot be null or empty");
-        }
-        if (request.title() == null || request.title().trim().isEmpty()) {
-            throw new IllegalArgumentException("Title cannot be null or empty");
-        }
-        if (request.description() == null || request.description().trim().isEmpty()) {
-            throw new IllegalArgumentException("Description cannot be null or empty");
-        }
-        if (request.status() == null || request.status().trim().isEmpty()) {
-            throw new IllegalArgumentException("Status cannot be null or empty");
-        }
+        validateTodoRequest(request);
         
         Todo todoResponse = todoService.createTodo(
                 request.userName(),
                 request.title(),
                 request.description(),
-                request.status(),
+                parseStatus(request.status()),
                 request.dueDate()
         );
         return ResponseEntity.ok(todoResponse);
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<TodoService.BulkResult> applyBulk(@RequestBody BulkRequest request) {
+        List<Todo> toCreate = new ArrayList<>();
+        if (request.create() != null) {
+            for (TodoRequest todoRequest : request.create()) {
+                validateTodoRequest(todoRequest);
+                toCreate.add(todoService.newTodo(
+                        todoRequest.userName(),
+                        todoRequest.title(),
+                        todoRequest.description(),
+                        parseStatus(todoRequest.status()),
+                        todoRequest.dueDate()
+                ));
+            }
+        }
+
+        Map<Long, TodoStatus> statusUpdates = new LinkedHashMap<>();
+        if (request.update() != null) {
+            for (BulkStatusUpdate update : request.update()) {
+                if (update.id() == null) {
+                    throw new IllegalArgumentException("Id cannot be null");
+                }
+                statusUpdates.put(update.id(), parseStatus(update.status()));
+            }
+        }
+
+        List<Long> toDelete = request.delete() == null ? List.of() : request.delete();
+
+        return ResponseEntity.ok(todoService.applyBulk(toCreate, statusUpdates, toDelete));
+    }
+
     @GetMapping("/user/{userName}")
-    public ResponseEntity<List<Todo>> getTodosByUserName(@PathVariable String userName) {
-        List<Todo> todos = todoService.getTodosByUserName(userName);
-        return ResponseEntity.ok(todos);
+    public ResponseEntity<List<Todo>> getTodosByUserName(
+            @PathVariable String userName,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String eTag = todoService.getTodoListETag(userName);
+        if (matchesETag(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(CacheControl.noCache()).build();
+        }
+        List<Todo> todos = todoService.getTodosByUserName(userName, eTag);
+        return ResponseEntity.ok().eTag(eTag).cacheControl(CacheControl.noCache()).body(todos);
+    }
+
+    @GetMapping(value = "/user/{userName}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeTodoEvents(@PathVariable String userName) {
+        return todoEventBroadcaster.subscribe(userName);
+    }
+
+    @GetMapping("/user/{userName}/stats")
+    public ResponseEntity<TodoStats> getTodoStatsByUserName(@PathVariable String userName) {
+        return ResponseEntity.ok(todoService.getTodoStatsByUserName(userName));
+    }
+
+    @GetMapping("/user/{userName}/summary")
+    public ResponseEntity<List<TodoSummary>> getTodoSummariesByUserName(@PathVariable String userName) {
+        return ResponseEntity.ok(todoService.getTodoSummariesByUserName(userName));
+    }
+
+    @GetMapping("/user/{userName}/search")
+    public ResponseEntity<List<TodoSummary>> searchTodos(
+            @PathVariable String userName,
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(todoService.searchTodos(userName, q, limit));
+    }
+
+    @GetMapping("/{todoId:\\d+}")
+    public ResponseEntity<Todo> getTodoById(@PathVariable Long todoId) {
+        return todoService.getTodoById(todoId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/user/{userName}/page")
+    public ResponseEntity<TodoPageResponse> getTodoPageByUserName(
+            @PathVariable String userName,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(todoService.getTodoPageByUserName(userName, cursor, size));
+        } catch (IllegalArgumentException e) {
+            // A cursor that was not issued by this endpoint
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/user/{userName}/stream")
+    public ResponseEntity<StreamingResponseBody> streamTodosByUserName(@PathVariable String userName) {
+        // Rows are written as the cursor moves, so memory stays flat regardless of list size
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                todoService.streamTodosByUserName(userName, todo -> {
+                    try {
+                        rowWriter.writeValue(generator, todo);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping(value = "/user/{userName}/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportTodos(@PathVariable String userName) {
+        // One JSON object per line, written as the cursor moves
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                todoService.streamTodosByUserName(userName, todo -> {
+                    try {
+                        rowWriter.writeValue(generator, todo);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"todos.ndjson\"")
+                .body(body);
+    }
+
+    /**
+     * Imports newline-delimited TodoRequest objects (the export format is accepted as is) for userName.
+     * Lines are parsed one at a time and saved in transactions of IMPORT_BATCH_SIZE rows, so memory stays flat
+     * regardless of the upload size. Invalid rows are skipped and reported; a malformed line stops the import,
+     * keeping the rows read before it.
+     */
+    @PostMapping(value = "/user/{userName}/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ImportResult> importTodos(@PathVariable String userName, InputStream body) throws IOException {
+        List<Todo> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        List<String> errors = new ArrayList<>();
+        int imported = 0;
+        int rejected = 0;
+        boolean malformed = false;
+
+        try (MappingIterator<TodoRequest> rows = importReader.readValues(body)) {
+            while (true) {
+                TodoRequest row;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    row = rows.nextValue();
+                } catch (JsonProcessingException e) {
+                    malformed = true;
+                    addImportError(errors, e.getLocation() == null ? -1 : e.getLocation().getLineNr(), "Malformed JSON");
+                    break;
+                }
+
+                int line = rows.getCurrentLocation().getLineNr();
+                try {
+                    if (row == null) {
+                        throw new IllegalArgumentException("Row cannot be null");
+                    }
+                    TodoRequest owned = new TodoRequest(userName, row.title(), row.description(), row.status(), row.dueDate());
+                    validateTodoRequest(owned);
+                    batch.add(todoService.newTodo(userName, owned.title(), owned.description(),
+                            parseStatus(owned.status()), owned.dueDate()));
+                } catch (IllegalArgumentException e) {
+                    rejected++;
+                    addImportError(errors, line, e.getMessage());
+                    continue;
+                }
+
+                if (batch.size() == IMPORT_BATCH_SIZE) {
+                    imported += todoService.applyBulk(batch, Map.of(), List.of()).created().size();
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            imported += todoService.applyBulk(batch, Map.of(), List.of()).created().size();
+        }
+
+        ImportResult result = new ImportResult(imported, rejected, errors);
+        return malformed ? ResponseEntity.badRequest().body(result) : ResponseEntity.ok(result);
     }
 
     @DeleteMapping("/delete/{todoId}")
@@ -60,10 +263,109 @@ public class TodoController {
 
     @PutMapping("/update/{todoId}/status")
     public ResponseEntity<Todo> updateTodoStatus(@PathVariable Long todoId, @RequestBody StatusUpdateRequest request) {
-        Todo updatedTodo = todoService.updateTodoStatus(todoId, request.status());
+        Todo updatedTodo = todoService.updateTodoStatus(todoId, parseStatus(request.status()));
         return ResponseEntity.ok(updatedTodo);
     }
 
+    /**
+     * Sets the status only if the todo is still at request.version: 200 with the new version, 404 if the user
+     * has no such todo, 409 if it has been changed in the meantime.
+     */
+    @PutMapping("/user/{userName}/{todoId:\\d+}/status")
+    public ResponseEntity<VersionResponse> updateTodoStatus(
+            @PathVariable String userName,
+            @PathVariable Long todoId,
+            @RequestBody VersionedStatusUpdateRequest request) {
+        requireVersion(request.version());
+        TodoStatus status = parseStatus(request.status());
+        try {
+            return todoService.updateTodoStatus(userName, todoId, request.version(), status)
+                    .map(version -> ResponseEntity.ok(new VersionResponse(todoId, version)))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    /**
+     * Changes the given title, description and dueDate (blank removes it) under the same version check as
+     * {@link #updateTodoStatus(String, Long, VersionedStatusUpdateRequest)}; omitted fields are left unchanged.
+     */
+    @PatchMapping("/user/{userName}/{todoId:\\d+}")
+    public ResponseEntity<VersionResponse> patchTodo(
+            @PathVariable String userName,
+            @PathVariable Long todoId,
+            @RequestBody TodoPatchRequest request) {
+        requireVersion(request.version());
+        try {
+            return todoService.patchTodo(userName, todoId, request.version(),
+                            request.title(), request.description(), request.dueDate())
+                    .map(version -> ResponseEntity.ok(new VersionResponse(todoId, version)))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    private static void requireVersion(Long version) {
+        if (version == null) {
+            throw new IllegalArgumentException("Version cannot be null");
+        }
+    }
+
+    private void validateTodoRequest(TodoRequest request) {
+        // Validate required fields
+        if (request.userName() == null || request.userName().trim().isEmpty()) {
+            throw new IllegalArgumentException("UserName cannot be null or empty");
+        }
+        if (request.title() == null || request.title().trim().isEmpty()) {
+            throw new IllegalArgumentException("Title cannot be null or empty");
+        }
+        if (request.description() == null || request.description().trim().isEmpty()) {
+            throw new IllegalArgumentException("Description cannot be null or empty");
+        }
+        parseStatus(request.status());
+    }
+
+    private static void addImportError(List<String> errors, int line, String message) {
+        if (errors.size() < MAX_IMPORT_ERRORS) {
+            errors.add("line " + line + ": " + message);
+        }
+    }
+
+    private static boolean matchesETag(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(eTag) || tag.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private TodoStatus parseStatus(String status) {
+        if (status == null || status.trim().isEmpty()) {
+            throw new IllegalArgumentException("Status cannot be null or empty");
+        }
+        try {
+            return TodoStatus.valueOf(status.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown status: " + status);
+        }
+    }
+
     public record TodoRequest(String userName, String title, String description, String status, String dueDate) {}
     public record StatusUpdateRequest(String status) {}
+    public record BulkRequest(List<TodoRequest> create, List<BulkStatusUpdate> update, List<Long> delete) {}
+    public record BulkStatusUpdate(Long id, String status) {}
+    public record ImportResult(int imported, int rejected, List<String> errors) {}
+    public record VersionedStatusUpdateRequest(Long version, String status) {}
+    public record TodoPatchRequest(Long version, String title, String description, String dueDate) {}
+    public record VersionResponse(Long id, Long version) {}
 }
@@ -2,10 +2,14 @@ package com.example.DevPlayground.controller;
 
 import com.example.DevPlayground.entity.Role;
 import com.example.DevPlayground.entity.Users;
+import com.example.DevPlayground.service.BoundedPasswordEncoder;
 import com.example.DevPlayground.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -16,6 +20,8 @@ import java.util.Optional;
 @PreAuthorize("hasRole('ADMIN')")
 public class UserController {
 
+    private static final Logger log = LoggerFactory.getLogger(UserController.class);
+
     private final UserService userService;
 
     @Autowired
@@ -40,9 +46,8 @@ public class UserController {
 
     @PostMapping("/users")
     public ResponseEntity<UserResponse> createUser(@RequestBody CreateUserRequest request) {
-        System.out.println("Create user request received: " + request);
-        System.out.println("Current authentication: " + 
-            org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication());
+        log.info("Create user request {} by {}", request,
+                SecurityContextHolder.getContext().getAuthentication().getName());
         
         try {
             // Check if username already exists
@@ -67,6 +72,9 @@ public class UserController {
             );
             
             return ResponseEntity.ok(response);
+        } catch (BoundedPasswordEncoder.HashingRejectedException e) {
+            // Answered with 503 by HashingRejectedHandler
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Failed to create user: " + e.getMessage());
         }
@@ -79,6 +87,11 @@ public class UserController {
     }
 
     public record CreateUserRequest(String username, String email, String password, String role) {
+        @Override
+        public String toString() {
+            return "CreateUserRequest[username=" + username + ", email=" + email
+                    + ", password=[REDACTED], role=" + role + "]";
+        }
     }
 
     public record UserResponse(Long id, String username, String email, String role, boolean enabled) {
@@ -0,0 +1,7 @@
+package com.example.DevPlayground.dto;
+
+/**
+ * 認証の検証に必要なPasskeyの項目だけを持つ読み取り専用のビュー
+ * attestationObjectやclientDataJSONは読み込まない
+ */
+public record PasskeyCredential(Long id, String credentialId, String username, String publicKey, Long signatureCount) {}
@@ -0,0 +1,17 @@
+package com.example.DevPlayground.dto;
+
+import com.example.DevPlayground.entity.Todo;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoPageResponse {
+    private List<Todo> items;
+    // null when there are no more pages
+    private String nextCursor;
+}
@@ -0,0 +1,8 @@
+package com.example.DevPlayground.dto;
+
+import com.example.DevPlayground.entity.TodoStatus;
+
+import java.util.Map;
+
+public record TodoStats(String userName, long total, long open, long done, Map<TodoStatus, Long> byStatus) {
+}
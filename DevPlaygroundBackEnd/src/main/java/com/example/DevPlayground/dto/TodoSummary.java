@@ -0,0 +1,8 @@
+package com.example.DevPlayground.dto;
+
+import com.example.DevPlayground.entity.TodoStatus;
+
+import java.time.LocalDateTime;
+
+public record TodoSummary(Long id, String title, TodoStatus status, LocalDateTime dueDate) {
+}
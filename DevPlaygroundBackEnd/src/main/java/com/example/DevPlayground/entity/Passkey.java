@@ -8,7 +8,9 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "passkeys")
+@Table(name = "passkeys",
+        uniqueConstraints = @UniqueConstraint(name = "uk_passkeys_credential_id", columnNames = "credentialId"),
+        indexes = @Index(name = "idx_passkeys_username", columnList = "username"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,16 +26,18 @@ public class Passkey {
     @Column(nullable = false)
     private String username;
     
+    // Base64URLエンコードしたCOSE公開鍵(CBOR)
     @Column(nullable = false, columnDefinition = "TEXT")
     private String publicKey;
     
     @Column(nullable = false)
     private Long signatureCount;
     
-    @Column(nullable = false)
+    // 証明書を含むattestationObjectは255文字に収まらない
+    @Column(nullable = false, columnDefinition = "TEXT")
     private String attestationObject;
     
-    @Column(nullable = false)
+    @Column(nullable = false, columnDefinition = "TEXT")
     private String clientDataJSON;
     
     @Column(nullable = false)
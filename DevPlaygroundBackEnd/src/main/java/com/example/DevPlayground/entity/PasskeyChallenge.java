@@ -8,7 +8,10 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "passkey_challenges")
+@Table(name = "passkey_challenges", indexes = {
+        @Index(name = "idx_passkey_challenges_username", columnList = "username"),
+        @Index(name = "idx_passkey_challenges_expires_at", columnList = "expiresAt")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -33,7 +36,9 @@ public class PasskeyChallenge {
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
-        // challengeは5分で期限切れ
-        expiresAt = LocalDateTime.now().plusMinutes(5);
+        // 期限が指定されていなければchallengeは5分で期限切れ
+        if (expiresAt == null) {
+            expiresAt = createdAt.plusMinutes(5);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.example.DevPlayground.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Row of the shared HTTP session store. The primary id never changes, so the session id can be rotated
+ * (session fixation protection) with a single UPDATE.
+ */
+@Entity
+@Table(name = "http_sessions", indexes = {
+        @Index(name = "idx_http_sessions_expiry_time", columnList = "expiryTime"),
+        @Index(name = "idx_http_sessions_principal_name", columnList = "principalName")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_http_sessions_session_id", columnNames = "sessionId")
+})
+@Data
+@NoArgsConstructor
+public class StoredSession implements Persistable<String> {
+
+    @Id
+    @Column(length = 36)
+    private String primaryId;
+
+    @Column(nullable = false, length = 64)
+    private String sessionId;
+
+    @Column(nullable = false)
+    private long creationTime;
+
+    // Written lazily, so it may lag the real last access by up to app.session.last-access-write-interval
+    @Column(nullable = false)
+    private long lastAccessedTime;
+
+    @Column(nullable = false)
+    private int maxInactiveInterval;
+
+    @Column(nullable = false)
+    private long expiryTime;
+
+    @Lob
+    @Column(nullable = false)
+    private byte[] attributes;
+
+    // Who the session is logged in as, so that session concurrency control can find a user's sessions
+    @Column(length = 255)
+    private String principalName;
+
+    // Bumped by every attribute write; lets nodes revalidate cached rows and detect concurrent writers
+    @Column(nullable = false)
+    private long attributesVersion;
+
+    // The id is assigned by the application, so tell Spring Data to persist instead of merge-with-select
+    @Transient
+    private boolean newSession = true;
+
+    @Override
+    public String getId() {
+        return primaryId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newSession;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        newSession = false;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.DevPlayground.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -8,14 +9,19 @@ import lombok.Setter;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "todos")
+@Table(name = "todos", indexes = {
+        @Index(name = "idx_todos_user_name_due_date", columnList = "userName, dueDate"),
+        @Index(name = "idx_todos_updated_at", columnList = "updatedAt")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 public class Todo {
     
+    // Pooled sequence instead of IDENTITY so that Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "todos_seq")
+    @SequenceGenerator(name = "todos_seq", sequenceName = "todos_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -27,18 +33,32 @@ public class Todo {
     @Column(nullable = false, columnDefinition = "TEXT")
     private String description;
 
-    @Column(nullable = false)
-    private String status;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TodoStatus status;
 
     private LocalDateTime dueDate;
 
+    // Incremented on every update; conditional updates compare it with the version the client last read
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     @Column(nullable = false)
     private LocalDateTime updatedAt;
 
-    public Todo(String userName, String title, String description, String status, LocalDateTime dueDate) {
+    // Due date the last UPCOMING / OVERDUE reminder was sent for; claimed with a conditional UPDATE so that
+    // only one node publishes each reminder. Not part of the version, so claims never conflict with clients.
+    @JsonIgnore
+    private LocalDateTime upcomingReminderSentFor;
+
+    @JsonIgnore
+    private LocalDateTime overdueReminderSentFor;
+
+    public Todo(String userName, String title, String description, TodoStatus status, LocalDateTime dueDate) {
         this.userName = userName;
         this.title = title;
         this.description = description;
@@ -0,0 +1,23 @@
+package com.example.DevPlayground.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Version of a user's todo list, incremented in the transaction of every write to the list.
+ */
+@Entity
+@Table(name = "todo_list_versions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoListVersion {
+
+    @Id
+    private String userName;
+
+    @Column(nullable = false)
+    private long version;
+}
@@ -0,0 +1,12 @@
+package com.example.DevPlayground.entity;
+
+public enum TodoStatus {
+    PENDING,
+    IN_PROGRESS,
+    COMPLETED,
+    CANCELLED;
+
+    public boolean isOpen() {
+        return this == PENDING || this == IN_PROGRESS;
+    }
+}
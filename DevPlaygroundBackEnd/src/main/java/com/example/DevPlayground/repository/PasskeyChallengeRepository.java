@@ -1,12 +1,14 @@
 package com.example.DevPlayground.repository;
 
 import com.example.DevPlayground.entity.PasskeyChallenge;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,9 +16,13 @@ public interface PasskeyChallengeRepository extends JpaRepository<PasskeyChallen
     
     Optional<PasskeyChallenge> findByUsernameAndChallenge(String username, String challenge);
     
-    @Modifying
-    @Query("DELETE FROM PasskeyChallenge pc WHERE pc.expiresAt < :now")
-    void deleteExpiredChallenges(LocalDateTime now);
+    // 期限切れのchallengeを削除単位ごとに取得する（expiresAtのインデックスを使う）
+    @Query("SELECT pc.id FROM PasskeyChallenge pc WHERE pc.expiresAt < :now")
+    List<Long> findExpiredIds(LocalDateTime now, Pageable pageable);
     
     void deleteByUsername(String username);
+
+    @Modifying
+    @Query("DELETE FROM PasskeyChallenge pc WHERE pc.id = :id")
+    int deleteChallengeById(Long id);
 }
\ No newline at end of file
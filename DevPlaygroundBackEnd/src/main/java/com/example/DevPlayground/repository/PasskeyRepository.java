@@ -1,9 +1,14 @@
 package com.example.DevPlayground.repository;
 
+import com.example.DevPlayground.dto.PasskeyCredential;
 import com.example.DevPlayground.entity.Passkey;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +22,21 @@ public interface PasskeyRepository extends JpaRepository<Passkey, Long> {
     Optional<Passkey> findByCredentialIdAndUsername(String credentialId, String username);
     
     boolean existsByCredentialId(String credentialId);
+
+    // ログインで使う読み取りはattestationObjectとclientDataJSONを読み込まない
+    @Query("SELECT new com.example.DevPlayground.dto.PasskeyCredential(p.id, p.credentialId, p.username, p.publicKey, p.signatureCount) "
+            + "FROM Passkey p WHERE p.credentialId = :credentialId")
+    Optional<PasskeyCredential> findCredentialByCredentialId(String credentialId);
+
+    @Query("SELECT p.credentialId FROM Passkey p WHERE p.username = :username")
+    List<String> findCredentialIdsByUsername(String username);
+
+    // signCountが増えている場合だけ更新する。同じassertionが同時に使われても成功するのは1件だけ
+    @Transactional
+    @Modifying
+    @Query("UPDATE Passkey p SET p.signatureCount = :signatureCount, p.updatedAt = :updatedAt "
+            + "WHERE p.credentialId = :credentialId AND p.signatureCount < :signatureCount")
+    int updateSignatureCountIfGreater(String credentialId, long signatureCount, LocalDateTime updatedAt);
     
     void deleteByUsername(String username);
 }
\ No newline at end of file
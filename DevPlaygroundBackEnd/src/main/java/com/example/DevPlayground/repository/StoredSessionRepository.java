@@ -0,0 +1,63 @@
+package com.example.DevPlayground.repository;
+
+import com.example.DevPlayground.entity.StoredSession;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StoredSessionRepository extends JpaRepository<StoredSession, String> {
+
+    Optional<StoredSession> findBySessionId(String sessionId);
+
+    List<StoredSession> findByPrincipalName(String principalName);
+
+    // Everything but the attribute blob, read on every request to revalidate the near cache
+    @Query("SELECT s.attributesVersion AS attributesVersion, s.lastAccessedTime AS lastAccessedTime, "
+            + "s.maxInactiveInterval AS maxInactiveInterval, s.expiryTime AS expiryTime "
+            + "FROM StoredSession s WHERE s.sessionId = :sessionId")
+    Optional<SessionState> findStateBySessionId(String sessionId);
+
+    @Modifying
+    @Query("UPDATE StoredSession s SET s.sessionId = :sessionId WHERE s.primaryId = :primaryId")
+    int updateSessionId(String primaryId, String sessionId);
+
+    // Matches nothing if another node has written the attributes since attributesVersion was read
+    @Modifying
+    @Query("UPDATE StoredSession s SET s.attributes = :attributes, s.attributesVersion = s.attributesVersion + 1, "
+            + "s.principalName = :principalName, s.lastAccessedTime = :lastAccessedTime, s.maxInactiveInterval = :maxInactiveInterval, "
+            + "s.expiryTime = :expiryTime WHERE s.primaryId = :primaryId AND s.attributesVersion = :attributesVersion")
+    int updateAttributes(String primaryId, byte[] attributes, long attributesVersion, String principalName,
+                         long lastAccessedTime, int maxInactiveInterval, long expiryTime);
+
+    // Touches only the access columns; the attribute blob is neither read nor rewritten
+    @Modifying
+    @Query("UPDATE StoredSession s SET s.lastAccessedTime = :lastAccessedTime, "
+            + "s.maxInactiveInterval = :maxInactiveInterval, s.expiryTime = :expiryTime WHERE s.primaryId = :primaryId")
+    int updateAccess(String primaryId, long lastAccessedTime, int maxInactiveInterval, long expiryTime);
+
+    @Modifying
+    @Query("DELETE FROM StoredSession s WHERE s.sessionId = :sessionId")
+    int deleteBySessionId(String sessionId);
+
+    // Expired sessions one chunk at a time (uses the expiryTime index)
+    @Query("SELECT s FROM StoredSession s WHERE s.expiryTime < :now")
+    List<StoredSession> findExpired(long now, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM StoredSession s WHERE s.primaryId IN :primaryIds AND s.expiryTime < :now")
+    int deleteExpired(Collection<String> primaryIds, long now);
+
+    interface SessionState {
+        Long getAttributesVersion();
+        Long getLastAccessedTime();
+        Integer getMaxInactiveInterval();
+        Long getExpiryTime();
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.DevPlayground.repository;
+
+import com.example.DevPlayground.entity.TodoListVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TodoListVersionRepository extends JpaRepository<TodoListVersion, String> {
+
+    @Query("SELECT v.version FROM TodoListVersion v WHERE v.userName = :userName")
+    Optional<Long> findVersionByUserName(String userName);
+
+    List<TodoListVersion> findByUserNameIn(Collection<String> userNames);
+
+    @Modifying
+    @Query("UPDATE TodoListVersion v SET v.version = v.version + 1 WHERE v.userName IN :userNames")
+    int incrementAll(Collection<String> userNames);
+
+    // A plain INSERT rather than save(): a merge would reset a row another node created in the meantime
+    @Modifying
+    @Query("INSERT INTO TodoListVersion (userName, version) VALUES (:userName, 0)")
+    int insert(String userName);
+}
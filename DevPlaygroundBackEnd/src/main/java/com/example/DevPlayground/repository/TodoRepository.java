@@ -1,12 +1,128 @@
 package com.example.DevPlayground.repository;
 
+import com.example.DevPlayground.dto.TodoSummary;
 import com.example.DevPlayground.entity.Todo;
+import com.example.DevPlayground.entity.TodoStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TodoRepository extends JpaRepository<Todo, Long> {
     List<Todo> findByUserNameOrderByDueDate(String userName);
-}
\ No newline at end of file
+
+    // List views only need these columns; description (TEXT) is loaded per id on demand
+    @Query("SELECT new com.example.DevPlayground.dto.TodoSummary(t.id, t.title, t.status, t.dueDate) "
+            + "FROM Todo t WHERE t.userName = :userName ORDER BY t.dueDate ASC NULLS FIRST, t.id ASC")
+    List<TodoSummary> findSummariesByUserName(String userName);
+
+    @Query("SELECT t.id AS id, t.userName AS userName, t.status AS status FROM Todo t WHERE t.id IN :ids")
+    List<TodoStatusView> findStatusViewsByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Todo t WHERE t.id IN :ids")
+    int deleteByIdIn(Collection<Long> ids);
+
+    @Query("SELECT t.status AS status, COUNT(t) AS count FROM Todo t WHERE t.userName = :userName GROUP BY t.status")
+    List<StatusCount> countByStatusForUser(String userName);
+
+    // Keyset pagination on (dueDate, id). Todos without a due date sort first, matching findByUserNameOrderByDueDate.
+    @Query("SELECT t FROM Todo t WHERE t.userName = :userName ORDER BY t.dueDate ASC NULLS FIRST, t.id ASC")
+    List<Todo> findPageByUserName(String userName, Pageable pageable);
+
+    @Query("SELECT t FROM Todo t WHERE t.userName = :userName "
+            + "AND ((t.dueDate IS NULL AND t.id > :id) OR t.dueDate IS NOT NULL) "
+            + "ORDER BY t.dueDate ASC NULLS FIRST, t.id ASC")
+    List<Todo> findPageByUserNameAfterNullDueDate(String userName, Long id, Pageable pageable);
+
+    @Query("SELECT t FROM Todo t WHERE t.userName = :userName "
+            + "AND (t.dueDate > :dueDate OR (t.dueDate = :dueDate AND t.id > :id)) "
+            + "ORDER BY t.dueDate ASC, t.id ASC")
+    List<Todo> findPageByUserNameAfter(String userName, LocalDateTime dueDate, Long id, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "256"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Todo t WHERE t.userName = :userName ORDER BY t.dueDate ASC NULLS FIRST, t.id ASC")
+    Stream<Todo> streamByUserName(String userName);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT t.id AS id, t.userName AS userName, t.title AS title, t.description AS description FROM Todo t")
+    Stream<TodoTextView> streamAllTexts();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT t.id AS id, t.userName AS userName, t.title AS title, t.description AS description "
+            + "FROM Todo t WHERE t.updatedAt >= :since")
+    Stream<TodoTextView> streamTextsChangedSince(LocalDateTime since);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT t.id AS id, t.userName AS userName, t.title AS title, t.dueDate AS dueDate, t.status AS status "
+            + "FROM Todo t WHERE t.dueDate > :after AND t.status IN :statuses")
+    Stream<TodoDueView> streamDueAfter(LocalDateTime after, Collection<TodoStatus> statuses);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT t.id AS id, t.userName AS userName, t.title AS title, t.dueDate AS dueDate, t.status AS status "
+            + "FROM Todo t WHERE t.updatedAt >= :since AND t.dueDate > :after AND t.status IN :statuses")
+    Stream<TodoDueView> streamChangedSince(LocalDateTime since, LocalDateTime after, Collection<TodoStatus> statuses);
+
+    // Reminder claims check the current row, so reminders of todos changed or deleted on another node are skipped
+    @Modifying
+    @Query("UPDATE Todo t SET t.upcomingReminderSentFor = t.dueDate WHERE t.id = :id AND t.status IN :statuses "
+            + "AND t.dueDate > :now AND t.dueDate <= :leadEnd "
+            + "AND (t.upcomingReminderSentFor IS NULL OR t.upcomingReminderSentFor <> t.dueDate)")
+    int claimUpcomingReminder(Long id, LocalDateTime now, LocalDateTime leadEnd, Collection<TodoStatus> statuses);
+
+    @Modifying
+    @Query("UPDATE Todo t SET t.overdueReminderSentFor = t.dueDate WHERE t.id = :id AND t.status IN :statuses "
+            + "AND t.dueDate <= :now "
+            + "AND (t.overdueReminderSentFor IS NULL OR t.overdueReminderSentFor <> t.dueDate)")
+    int claimOverdueReminder(Long id, LocalDateTime now, Collection<TodoStatus> statuses);
+
+    @Query("SELECT t.id AS id, t.userName AS userName, t.title AS title, t.dueDate AS dueDate, t.status AS status "
+            + "FROM Todo t WHERE t.id = :id")
+    Optional<TodoDueView> findDueViewById(Long id);
+
+    boolean existsByIdAndUserName(Long id, String userName);
+
+    @Query("SELECT new com.example.DevPlayground.dto.TodoSummary(t.id, t.title, t.status, t.dueDate) "
+            + "FROM Todo t WHERE t.id IN :ids")
+    List<TodoSummary> findSummariesByIdIn(Collection<Long> ids);
+
+    interface TodoStatusView {
+        Long getId();
+        String getUserName();
+        TodoStatus getStatus();
+    }
+
+    interface TodoTextView {
+        Long getId();
+        String getUserName();
+        String getTitle();
+        String getDescription();
+    }
+
+    interface TodoDueView {
+        Long getId();
+        String getUserName();
+        String getTitle();
+        LocalDateTime getDueDate();
+        TodoStatus getStatus();
+    }
+
+    interface StatusCount {
+        TodoStatus getStatus();
+        Long getCount();
+    }
+}
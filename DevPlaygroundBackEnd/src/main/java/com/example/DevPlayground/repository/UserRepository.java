@@ -2,6 +2,7 @@ package com.example.DevPlayground.repository;
 
 import com.example.DevPlayground.entity.Users;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -9,4 +10,9 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends JpaRepository<Users, Long> {
     Optional<Users> findByUsername(String username);
+
+    boolean existsByUsername(String username);
+
+    @Query("SELECT u.username FROM Users u WHERE u.id = :id")
+    Optional<String> findUsernameById(Long id);
 }
@@ -0,0 +1,174 @@
+package com.example.DevPlayground.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token-bucket limits for the unauthenticated auth endpoints: one bucket per client IP, and one per
+ * (username, client IP) pair.
+ * <p>
+ * The IP bucket stops a single client from driving password hashing and passkey lookups. The username bucket
+ * slows down guessing against one account from one client without letting anybody lock an account out: a
+ * client that exhausts it only throttles itself, and the same user signing in from elsewhere is unaffected.
+ * Guessing spread over many addresses is bounded by the IP buckets alone.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding the time at which it would be full again (the
+ * "generic cell rate algorithm" form of a token bucket), so acquiring a permit is one CAS and never blocks.
+ * A full bucket behaves exactly like a missing one, which is what lets {@link #evictIdle()} drop it.
+ * At most {@code max-keys} buckets of each kind are kept; past that Caffeine evicts the least valuable ones,
+ * so a flood of new keys costs those keys a fresh bucket each rather than sharing one with everybody else.
+ */
+@Component
+public class AuthRateLimiter {
+
+    private final boolean enabled;
+    private final LongSupplier nanoClock;
+    private final Buckets<String> ipBuckets;
+    private final Buckets<UsernameKey> usernameBuckets;
+
+    @Autowired
+    public AuthRateLimiter(@Value("${security.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${security.rate-limit.ip.requests-per-minute:60}") long ipRequestsPerMinute,
+                           @Value("${security.rate-limit.ip.burst:20}") long ipBurst,
+                           @Value("${security.rate-limit.username.requests-per-minute:10}") long usernameRequestsPerMinute,
+                           @Value("${security.rate-limit.username.burst:5}") long usernameBurst,
+                           @Value("${security.rate-limit.max-keys:100000}") int maxKeys,
+                           MeterRegistry meterRegistry) {
+        this(enabled, ipRequestsPerMinute, ipBurst, usernameRequestsPerMinute, usernameBurst, maxKeys,
+                meterRegistry, System::nanoTime);
+    }
+
+    AuthRateLimiter(boolean enabled, long ipRequestsPerMinute, long ipBurst, long usernameRequestsPerMinute,
+                    long usernameBurst, int maxKeys, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.enabled = enabled;
+        this.nanoClock = nanoClock;
+        this.ipBuckets = new Buckets<>("ip", ipRequestsPerMinute, ipBurst, maxKeys, meterRegistry);
+        this.usernameBuckets = new Buckets<>("username", usernameRequestsPerMinute, usernameBurst, maxKeys, meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return zero if the request may proceed, otherwise how long the client should wait
+     */
+    public Duration tryAcquireIp(String clientIp) {
+        return ipBuckets.tryAcquire(clientIp, nanoClock.getAsLong());
+    }
+
+    /**
+     * @return zero if the request may proceed, otherwise how long the client should wait
+     */
+    public Duration tryAcquireUsername(String username, String clientIp) {
+        return usernameBuckets.tryAcquire(new UsernameKey(username, clientIp), nanoClock.getAsLong());
+    }
+
+    @Scheduled(initialDelayString = "${security.rate-limit.sweep-interval:PT1M}",
+            fixedDelayString = "${security.rate-limit.sweep-interval:PT1M}")
+    public void evictIdle() {
+        long now = nanoClock.getAsLong();
+        ipBuckets.evictIdle(now);
+        usernameBuckets.evictIdle(now);
+    }
+
+    long bucketCount() {
+        ipBuckets.buckets.cleanUp();
+        usernameBuckets.buckets.cleanUp();
+        return ipBuckets.buckets.estimatedSize() + usernameBuckets.buckets.estimatedSize();
+    }
+
+    private record UsernameKey(String username, String clientIp) {
+    }
+
+    private static final class Buckets<K> {
+        private final Cache<K, Bucket> buckets;
+        private final long intervalNanos;
+        private final long toleranceNanos;
+        private final Counter allowed;
+        private final Counter rejected;
+        private final Counter evictedIdle;
+
+        Buckets(String key, long requestsPerMinute, long burst, int maxKeys, MeterRegistry meterRegistry) {
+            this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / requestsPerMinute;
+            this.toleranceNanos = intervalNanos * burst;
+            this.allowed = meterRegistry.counter("auth.rate-limit.requests", "key", key, "outcome", "allowed");
+            this.rejected = meterRegistry.counter("auth.rate-limit.requests", "key", key, "outcome", "rejected");
+            this.evictedIdle = meterRegistry.counter("auth.rate-limit.evicted", "key", key, "cause", "idle");
+            Counter evictedSize = meterRegistry.counter("auth.rate-limit.evicted", "key", key, "cause", "size");
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maxKeys)
+                    // Runs evictions on the calling thread, so the bound holds without a background task
+                    .executor(Runnable::run)
+                    .evictionListener((K k, Bucket bucket, RemovalCause cause) -> evictedSize.increment())
+                    .build();
+            Gauge.builder("auth.rate-limit.buckets", buckets, Cache::estimatedSize)
+                    .tag("key", key)
+                    .register(meterRegistry);
+        }
+
+        Duration tryAcquire(K key, long now) {
+            Bucket bucket = buckets.get(key, k -> new Bucket(now));
+            long waitNanos = bucket.tryAcquire(now, intervalNanos, toleranceNanos);
+            if (waitNanos > 0) {
+                rejected.increment();
+                return Duration.ofNanos(waitNanos);
+            }
+            allowed.increment();
+            return Duration.ZERO;
+        }
+
+        void evictIdle(long now) {
+            // A request racing with the removal may spend a permit from the dropped bucket; that only ever
+            // errs towards letting one extra request through
+            buckets.asMap().forEach((key, bucket) -> {
+                if (bucket.isFull(now) && buckets.asMap().remove(key, bucket)) {
+                    evictedIdle.increment();
+                }
+            });
+        }
+    }
+
+    private static final class Bucket {
+        // When the bucket will be full again; a permit moves it one interval further into the future
+        private final AtomicLong fullAt;
+
+        Bucket(long now) {
+            this.fullAt = new AtomicLong(now);
+        }
+
+        /**
+         * @return zero if a permit was taken, otherwise nanoseconds until one is available
+         */
+        long tryAcquire(long now, long intervalNanos, long toleranceNanos) {
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + intervalNanos;
+                long waitNanos = next - now - toleranceNanos;
+                if (waitNanos > 0) {
+                    return waitNanos;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        boolean isFull(long now) {
+            return fullAt.get() - now <= 0;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.DevPlayground.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a (deliberately slow) password encoder on a small fixed pool with a bounded queue.
+ * <p>
+ * At most {@code threads} hashes run at once and at most {@code queueCapacity} wait for a slot, so a login
+ * burst can neither saturate the CPU nor tie up more than {@code threads + queueCapacity} request threads.
+ * Anything beyond that fails immediately with {@link HashingRejectedException} instead of queueing behind
+ * work that would outlive the client anyway.
+ * <p>
+ * A caller that times out only stops waiting: bcrypt does not check for interruption, so a hash that has
+ * already started runs to completion and keeps its pool thread. What the timeout does bound is queued work,
+ * which checks its deadline when it reaches a thread and is dropped without hashing if the caller has gone.
+ * Under overload the pool therefore spends its CPU only on requests somebody is still waiting for.
+ * <p>
+ * The pool is owned by this encoder rather than exposed as an executor bean; Spring calls {@link #close()}
+ * on shutdown.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutNanos;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, Duration timeout,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timeoutNanos = timeout.toNanos();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "password.hashing", List.of()).bindTo(meterRegistry);
+        this.rejected = meterRegistry.counter("password.hashing.rejected");
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        // Copy so the task never sees a caller-owned buffer change underneath it
+        String raw = rawPassword == null ? null : rawPassword.toString();
+        return submit(() -> delegate.encode(raw));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        String raw = rawPassword == null ? null : rawPassword.toString();
+        return submit(() -> delegate.matches(raw, encodedPassword));
+    }
+
+    /**
+     * Only parses the stored hash, so it runs on the caller's thread.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private <T> T submit(Callable<T> task) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                if (System.nanoTime() - deadline >= 0) {
+                    // The caller has already timed out; hashing now would only delay the requests behind us
+                    throw new HashingRejectedException("Password hashing timed out in the queue", null);
+                }
+                return task.call();
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new HashingRejectedException("Password hashing queue is full", e);
+        }
+        try {
+            return future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Removes the task if it is still queued; a hash that is already running cannot be stopped
+            future.cancel(true);
+            rejected.increment();
+            throw new HashingRejectedException("Password hashing timed out", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new HashingRejectedException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    /**
+     * Thrown when the hashing pool is saturated; HashingRejectedHandler answers it with 503 rather than 401.
+     * Deliberately not an AuthenticationException, so the authentication manager does not turn it into a
+     * failed login.
+     */
+    public static class HashingRejectedException extends RuntimeException {
+        public HashingRejectedException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
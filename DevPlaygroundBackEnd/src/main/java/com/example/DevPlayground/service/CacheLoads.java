@@ -0,0 +1,48 @@
+package com.example.DevPlayground.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Read-through loads for the Caffeine caches that run the loader on the calling thread, outside any lock.
+ * <p>
+ * A synchronous {@code Cache.get(key, loader)} runs the loader inside ConcurrentHashMap.compute, which holds
+ * a monitor; on Java 21 a virtual thread that blocks on JDBC there (including waiting for a pooled
+ * connection) pins its carrier thread. Here the compute only installs an incomplete future. The caller that
+ * installed it runs the loader, and concurrent callers for the same key park on the future, so there is
+ * still one load per key. Caffeine drops a future that completes with null or an exception, and an
+ * invalidation that arrives during the load removes the future: its callers get the loaded value, but it
+ * is never cached.
+ */
+final class CacheLoads {
+
+    private CacheLoads() {
+    }
+
+    static <K, V> V getOrLoad(AsyncCache<K, V> cache, K key, Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> loading = new CompletableFuture<>();
+        CompletableFuture<V> future = cache.get(key, (k, executor) -> loading);
+        if (future == loading) {
+            try {
+                loading.complete(loader.apply(key));
+            } catch (RuntimeException | Error e) {
+                loading.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
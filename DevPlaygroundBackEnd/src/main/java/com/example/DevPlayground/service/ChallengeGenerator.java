@@ -0,0 +1,44 @@
+package com.example.DevPlayground.service;
+
+import org.springframework.stereotype.Component;
+
+import java.security.DrbgParameters;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * WebAuthnのchallengeを生成するコンポーネント
+ * Linuxのデフォルト(NativePRNG)は呼び出しのたびにグローバルなロックを持ったまま/dev/urandomを読むため、
+ * 仮想スレッドではキャリアスレッドが固定(pinning)される。
+ * DRBGはシード後はメモリ上の計算だけで済むので、シードを生成時に済ませておく
+ */
+@Component
+public class ChallengeGenerator {
+
+    private static final int CHALLENGE_BYTES = 32;
+
+    private final SecureRandom secureRandom;
+
+    public ChallengeGenerator() {
+        try {
+            this.secureRandom = SecureRandom.getInstance("DRBG",
+                    DrbgParameters.instantiation(256, DrbgParameters.Capability.RESEED_ONLY, null));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("DRBG is not available", e);
+        }
+        // 最初の呼び出しでエントロピーソースからシードされる
+        secureRandom.nextBytes(new byte[1]);
+    }
+
+    /**
+     * ランダムなchallengeを生成
+     *
+     * @return Base64URL(パディングなし)でエンコードしたchallenge文字列
+     */
+    public String generate() {
+        byte[] challengeBytes = new byte[CHALLENGE_BYTES];
+        secureRandom.nextBytes(challengeBytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(challengeBytes);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.DevPlayground.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * WebAuthnのclientDataJSONからchallengeを取り出すパーサー
+ * デコードしたバイト列をそのままトークン単位で読み、JsonNodeのツリーは作らない。
+ * type・challenge・originの3つが揃った時点で読むのをやめ、typeとoriginも同時に検証する
+ */
+@Component
+public class ClientDataParser {
+
+    public static final String TYPE_CREATE = "webauthn.create";
+    public static final String TYPE_GET = "webauthn.get";
+
+    private final JsonFactory jsonFactory;
+    private final Set<String> allowedOrigins;
+
+    @Autowired
+    public ClientDataParser(ObjectMapper objectMapper,
+                            @Value("${passkey.allowed-origins:http://localhost:5173}") Collection<String> allowedOrigins) {
+        this(objectMapper.getFactory(), allowedOrigins);
+    }
+
+    ClientDataParser(JsonFactory jsonFactory, Collection<String> allowedOrigins) {
+        this.jsonFactory = jsonFactory;
+        this.allowedOrigins = Set.copyOf(allowedOrigins);
+    }
+
+    /**
+     * clientDataJSONを検証してchallengeを返す
+     *
+     * @param clientDataJSON Base64URLエンコードされたClientDataJSON
+     * @param expectedType   期待するtype（{@link #TYPE_CREATE} または {@link #TYPE_GET}）
+     * @return challenge文字列
+     * @throws RuntimeException clientDataJSONが不正な場合、またはtype・originが一致しない場合
+     */
+    public String extractChallenge(String clientDataJSON, String expectedType) {
+        byte[] decoded;
+        try {
+            decoded = Base64.getUrlDecoder().decode(clientDataJSON);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Client data is not valid Base64URL", e);
+        }
+
+        String type = null;
+        String challenge = null;
+        String origin = null;
+        // JSONの文字コード(UTF-8)はバイト列から判定される
+        try (JsonParser parser = jsonFactory.createParser(decoded)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new RuntimeException("Client data is not a JSON object");
+            }
+            String field;
+            while ((type == null || challenge == null || origin == null) && (field = parser.nextFieldName()) != null) {
+                // 同じ項目が2回あるclientDataJSONはどちらを使うかが曖昧になるため拒否する
+                switch (field) {
+                    case "type" -> type = requireText(type, parser.nextTextValue(), field);
+                    case "challenge" -> challenge = requireText(challenge, parser.nextTextValue(), field);
+                    case "origin" -> origin = requireText(origin, parser.nextTextValue(), field);
+                    default -> {
+                        // crossOrigin、tokenBindingなど検証に使わない項目は中身ごと読み飛ばす
+                        parser.nextToken();
+                        parser.skipChildren();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to parse client data", e);
+        }
+
+        if (!expectedType.equals(type)) {
+            throw new RuntimeException("Unexpected client data type: " + type);
+        }
+        if (challenge == null) {
+            throw new RuntimeException("Challenge field not found in client data");
+        }
+        if (origin == null || !allowedOrigins.contains(origin)) {
+            throw new RuntimeException("Origin not allowed: " + origin);
+        }
+        return challenge;
+    }
+
+    private static String requireText(String previous, String value, String field) {
+        if (previous != null) {
+            throw new RuntimeException("Duplicate field " + field + " in client data");
+        }
+        if (value == null) {
+            throw new RuntimeException("Field " + field + " must be a string in client data");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.DevPlayground.service;
+
+import org.springframework.context.ApplicationListener;
+import org.springframework.security.core.session.AbstractSessionEvent;
+import org.springframework.security.core.session.SessionDestroyedEvent;
+import org.springframework.security.core.session.SessionIdChangedEvent;
+import org.springframework.security.core.session.SessionInformation;
+import org.springframework.security.core.session.SessionRegistry;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link SessionRegistry} for concurrency control that stays cheap when many request threads hit it at once.
+ * <p>
+ * Compared with Spring's SessionRegistryImpl:
+ * <ul>
+ *     <li>the per-request {@link #refreshLastRequest} is a volatile long write, skipped when the value would
+ *     not change, instead of allocating a Date and writing a shared field unconditionally</li>
+ *     <li>each principal's session ids live in a concurrent set, so a login or logout updates one entry
+ *     rather than copying a CopyOnWriteArraySet</li>
+ *     <li>{@link SessionInformation#expireNow()} is visible to other request threads immediately</li>
+ * </ul>
+ * Both maps are ConcurrentHashMaps, whose per-bin locking already shards updates by key; reads never lock.
+ * Sessions are removed through the {@link SessionDestroyedEvent}s published by HttpSessionEventPublisher.
+ * <p>
+ * The registry lives in this node's memory, so it is only used with container sessions; with the shared
+ * session store the registry is backed by that store instead (see SessionConfig).
+ */
+public class ConcurrentSessionRegistry implements SessionRegistry, ApplicationListener<AbstractSessionEvent> {
+
+    private final ConcurrentHashMap<String, TrackedSession> sessions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Object, Set<String>> sessionIdsByPrincipal = new ConcurrentHashMap<>();
+
+    @Override
+    public List<Object> getAllPrincipals() {
+        return new ArrayList<>(sessionIdsByPrincipal.keySet());
+    }
+
+    /**
+     * Returns a new mutable list; callers such as the concurrency control strategy sort it.
+     */
+    @Override
+    public List<SessionInformation> getAllSessions(Object principal, boolean includeExpiredSessions) {
+        Set<String> sessionIds = sessionIdsByPrincipal.get(principal);
+        if (sessionIds == null) {
+            return new ArrayList<>();
+        }
+        List<SessionInformation> result = new ArrayList<>(sessionIds.size());
+        for (String sessionId : sessionIds) {
+            TrackedSession session = sessions.get(sessionId);
+            if (session != null && (includeExpiredSessions || !session.isExpired())) {
+                result.add(session);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public SessionInformation getSessionInformation(String sessionId) {
+        return sessions.get(sessionId);
+    }
+
+    @Override
+    public void refreshLastRequest(String sessionId) {
+        TrackedSession session = sessions.get(sessionId);
+        if (session != null) {
+            session.refreshLastRequest();
+        }
+    }
+
+    @Override
+    public void registerNewSession(String sessionId, Object principal) {
+        removeSessionInformation(sessionId);
+        sessionIdsByPrincipal.compute(principal, (key, sessionIds) -> {
+            Set<String> ids = sessionIds != null ? sessionIds : ConcurrentHashMap.newKeySet();
+            ids.add(sessionId);
+            // Published under the principal's bin lock: a concurrent removal either misses the session
+            // entirely or waits for this block and then removes the id too, so no id is left behind
+            sessions.put(sessionId, new TrackedSession(principal, sessionId));
+            return ids;
+        });
+    }
+
+    @Override
+    public void removeSessionInformation(String sessionId) {
+        TrackedSession session = sessions.remove(sessionId);
+        if (session == null) {
+            return;
+        }
+        // Removing the principal's last id drops the principal, under the same bin lock as registration
+        sessionIdsByPrincipal.computeIfPresent(session.getPrincipal(), (key, sessionIds) -> {
+            sessionIds.remove(sessionId);
+            return sessionIds.isEmpty() ? null : sessionIds;
+        });
+    }
+
+    @Override
+    public void onApplicationEvent(AbstractSessionEvent event) {
+        if (event instanceof SessionDestroyedEvent destroyed) {
+            removeSessionInformation(destroyed.getId());
+        } else if (event instanceof SessionIdChangedEvent changed) {
+            TrackedSession session = sessions.get(changed.getOldSessionId());
+            if (session != null) {
+                removeSessionInformation(changed.getOldSessionId());
+                registerNewSession(changed.getNewSessionId(), session.getPrincipal());
+            }
+        }
+    }
+
+    private static final class TrackedSession extends SessionInformation {
+        private volatile long lastRequest;
+        private volatile boolean expired;
+
+        TrackedSession(Object principal, String sessionId) {
+            this(principal, sessionId, System.currentTimeMillis());
+        }
+
+        private TrackedSession(Object principal, String sessionId, long now) {
+            super(principal, sessionId, new Date(now));
+            this.lastRequest = now;
+        }
+
+        @Override
+        public void refreshLastRequest() {
+            long now = System.currentTimeMillis();
+            // Concurrent requests of one session within the same millisecond leave the cache line clean
+            if (lastRequest < now) {
+                lastRequest = now;
+            }
+        }
+
+        @Override
+        public Date getLastRequest() {
+            return new Date(lastRequest);
+        }
+
+        @Override
+        public void expireNow() {
+            expired = true;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return expired;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.DevPlayground.service;
+
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+
+/**
+ * Parses due dates sent by clients, accepting the same inputs as
+ * {@code LocalDateTime.parse(text, ofPattern("yyyy-MM-dd'T'HH:mm"))} with a fallback to
+ * {@code LocalDateTime.parse(text)}: {@code yyyy-MM-ddTHH:mm[:ss[.fraction]]}.
+ * <p>
+ * Unlike the SMART-resolving formatter, impossible dates such as 2025-02-30 or 24:00 are rejected
+ * rather than clamped or rolled over. Invalid input yields null instead of a DateTimeParseException,
+ * and nothing but the result is allocated, so bulk imports can parse one date per row cheaply.
+ */
+public final class DueDateParser {
+
+    private DueDateParser() {
+    }
+
+    public static LocalDateTime parse(String text) {
+        if (text == null) {
+            return null;
+        }
+        int length = text.length();
+        if (length < 16 || text.charAt(4) != '-' || text.charAt(7) != '-'
+                || (text.charAt(10) != 'T' && text.charAt(10) != 't') || text.charAt(13) != ':') {
+            return null;
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        int second = 0;
+        int nano = 0;
+        if (length > 16) {
+            if (length < 19 || text.charAt(16) != ':') {
+                return null;
+            }
+            second = digits(text, 17, 2);
+            if (length > 19) {
+                int fractionDigits = length - 20;
+                if (text.charAt(19) != '.' || fractionDigits < 1 || fractionDigits > 9) {
+                    return null;
+                }
+                nano = digits(text, 20, fractionDigits);
+                for (int i = fractionDigits; i < 9 && nano >= 0; i++) {
+                    nano *= 10;
+                }
+            }
+        }
+        if (year < 0 || month < 1 || month > 12 || day < 1 || hour < 0 || hour > 23
+                || minute < 0 || minute > 59 || second < 0 || second > 59 || nano < 0) {
+            return null;
+        }
+        if (day > Month.of(month).length(Year.isLeap(year))) {
+            return null;
+        }
+        return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+    }
+
+    /**
+     * @return the decimal value of text[start, start + count), or -1 if it contains a non-digit
+     */
+    private static int digits(String text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.DevPlayground.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * challengeをメモリ上に保持するPasskeyChallengeStore
+ * ユーザーごとに最新の1件だけを保持するため、件数はユーザー数で頭打ちになる。
+ * 放置されたchallengeはTTLごとに1回、issueのついでに掃除する。
+ * <p>
+ * インスタンス間で共有されないため、複数台構成ではスティッキーセッションにするか jpa を使うこと。
+ * passkey.challenge-store=auto（デフォルト）では app.session.store=jdbc でない場合にだけ選ばれる。
+ * app.session.store=jdbc（スティッキーセッションなしの複数台構成）で memory を明示した場合は起動を失敗させる
+ */
+@Component
+@ConditionalOnExpression("'${passkey.challenge-store:auto}' == 'memory' "
+        + "or ('${passkey.challenge-store:auto}' == 'auto' and '${app.session.store:memory}' != 'jdbc')")
+public class InMemoryPasskeyChallengeStore implements PasskeyChallengeStore {
+
+    private final ConcurrentHashMap<String, StoredChallenge> challenges = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    private final AtomicLong nextSweepAt;
+
+    public InMemoryPasskeyChallengeStore(@Value("${passkey.challenge-ttl:5m}") Duration ttl,
+                                         @Value("${app.session.store:memory}") String sessionStore) {
+        if ("jdbc".equals(sessionStore)) {
+            throw new IllegalStateException("passkey.challenge-store=memory cannot be used with app.session.store=jdbc: "
+                    + "a passkey start and its finish may reach different nodes; use jpa or auto");
+        }
+        this.ttlMillis = ttl.toMillis();
+        this.nextSweepAt = new AtomicLong(System.currentTimeMillis() + ttlMillis);
+    }
+
+    @Override
+    public void issue(String username, String challenge) {
+        long now = System.currentTimeMillis();
+        challenges.put(username, new StoredChallenge(challenge, now + ttlMillis));
+
+        long sweepAt = nextSweepAt.get();
+        if (now >= sweepAt && nextSweepAt.compareAndSet(sweepAt, now + ttlMillis)) {
+            purgeExpired(now);
+        }
+    }
+
+    @Override
+    public ConsumeResult consume(String username, String challenge) {
+        StoredChallenge stored = challenges.get(username);
+        if (stored == null || !stored.challenge().equals(challenge)) {
+            return ConsumeResult.INVALID;
+        }
+        // 同時に消費された場合は片方だけが削除に成功する
+        if (!challenges.remove(username, stored)) {
+            return ConsumeResult.INVALID;
+        }
+        return stored.expiresAt() < System.currentTimeMillis() ? ConsumeResult.EXPIRED : ConsumeResult.CONSUMED;
+    }
+
+    @Override
+    public int purgeExpired() {
+        return purgeExpired(System.currentTimeMillis());
+    }
+
+    @Override
+    public long size() {
+        return challenges.size();
+    }
+
+    private int purgeExpired(long now) {
+        int purged = 0;
+        for (Map.Entry<String, StoredChallenge> entry : challenges.entrySet()) {
+            if (entry.getValue().expiresAt() < now && challenges.remove(entry.getKey(), entry.getValue())) {
+                purged++;
+            }
+        }
+        return purged;
+    }
+
+    private record StoredChallenge(String challenge, long expiresAt) {}
+}
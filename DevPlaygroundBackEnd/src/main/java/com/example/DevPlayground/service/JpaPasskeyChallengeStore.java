@@ -0,0 +1,99 @@
+package com.example.DevPlayground.service;
+
+import com.example.DevPlayground.entity.PasskeyChallenge;
+import com.example.DevPlayground.repository.PasskeyChallengeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * challengeをpasskey_challengesテーブルに保存するPasskeyChallengeStore
+ * 複数インスタンスでchallengeを共有する必要がある場合に passkey.challenge-store=jpa で使う。
+ * passkey.challenge-store=auto（デフォルト）でも app.session.store=jdbc なら自動で選ばれる
+ */
+@Component
+@ConditionalOnExpression("'${passkey.challenge-store:auto}' == 'jpa' "
+        + "or ('${passkey.challenge-store:auto}' == 'auto' and '${app.session.store:memory}' == 'jdbc')")
+public class JpaPasskeyChallengeStore implements PasskeyChallengeStore {
+
+    private final PasskeyChallengeRepository passkeyChallengeRepository;
+    private final Duration ttl;
+    private final int purgeChunkSize;
+    private final TransactionTemplate chunkTransaction;
+
+    public JpaPasskeyChallengeStore(PasskeyChallengeRepository passkeyChallengeRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${passkey.challenge-ttl:5m}") Duration ttl,
+                                    @Value("${passkey.challenge-purge.chunk-size:500}") int purgeChunkSize) {
+        this.passkeyChallengeRepository = passkeyChallengeRepository;
+        this.ttl = ttl;
+        this.purgeChunkSize = purgeChunkSize;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    @Transactional
+    public void issue(String username, String challenge) {
+        passkeyChallengeRepository.deleteByUsername(username);
+
+        PasskeyChallenge passkeyChallenge = new PasskeyChallenge();
+        passkeyChallenge.setUsername(username);
+        passkeyChallenge.setChallenge(challenge);
+        passkeyChallenge.setExpiresAt(LocalDateTime.now().plus(ttl));
+        passkeyChallengeRepository.save(passkeyChallenge);
+    }
+
+    /**
+     * 呼び出し元のトランザクションには参加せず、削除をすぐにコミットする
+     * finishRegistrationの検証が例外で失敗してロールバックされても、challengeは消費されたままになる
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public ConsumeResult consume(String username, String challenge) {
+        Optional<PasskeyChallenge> stored = passkeyChallengeRepository.findByUsernameAndChallenge(username, challenge);
+        // 削除できた1件だけを有効とし、同時に消費された場合は片方を無効にする
+        if (stored.isEmpty() || passkeyChallengeRepository.deleteChallengeById(stored.get().getId()) == 0) {
+            return ConsumeResult.INVALID;
+        }
+        return stored.get().getExpiresAt().isBefore(LocalDateTime.now()) ? ConsumeResult.EXPIRED : ConsumeResult.CONSUMED;
+    }
+
+    /**
+     * purgeChunkSize件ずつ別々のトランザクションで削除する
+     * 1回のDELETEで全件を消すとテーブルが大きいときにロックを長く持ち続けるため
+     */
+    @Override
+    public int purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        PageRequest chunk = PageRequest.of(0, purgeChunkSize);
+        int purged = 0;
+        while (true) {
+            Integer deleted = chunkTransaction.execute(status -> {
+                List<Long> ids = passkeyChallengeRepository.findExpiredIds(now, chunk);
+                if (!ids.isEmpty()) {
+                    passkeyChallengeRepository.deleteAllByIdInBatch(ids);
+                }
+                return ids.size();
+            });
+            purged += deleted;
+            if (deleted < purgeChunkSize) {
+                return purged;
+            }
+        }
+    }
+
+    @Override
+    public long size() {
+        return passkeyChallengeRepository.count();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.DevPlayground.service;
+
+/**
+ * Passkeyのceremony（登録・ログイン）で発行したchallengeの保存先
+ * 実装は passkey.challenge-store で切り替える（memory、jpa: passkey_challengesテーブル、
+ * auto: デフォルト。app.session.store=jdbc なら jpa、それ以外は memory）
+ */
+public interface PasskeyChallengeStore {
+
+    /**
+     * challengeを保存する
+     * 同じユーザーの既存のchallengeは置き換えられる
+     *
+     * @param username  ユーザー名
+     * @param challenge 発行したchallenge
+     */
+    void issue(String username, String challenge);
+
+    /**
+     * challengeを検証して消費する
+     * 一致したchallengeは期限切れかどうかに関わらず削除され、二度と使えない
+     *
+     * @param username  ユーザー名
+     * @param challenge クライアントから受け取ったchallenge
+     * @return 検証結果
+     */
+    ConsumeResult consume(String username, String challenge);
+
+    /**
+     * 期限切れのchallengeを削除する
+     *
+     * @return 削除した件数
+     */
+    int purgeExpired();
+
+    /**
+     * @return 保存されているchallengeの件数（期限切れを含む）
+     */
+    long size();
+
+    enum ConsumeResult {
+        CONSUMED,
+        INVALID,
+        EXPIRED
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.DevPlayground.service;
+
+import com.example.DevPlayground.repository.PasskeyRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.webauthn4j.converter.util.CborConverter;
+import com.webauthn4j.converter.util.ObjectConverter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * credentialIdをキーにした、すぐに署名検証に使えるPasskeySignatureVerifierのキャッシュ
+ * COSE公開鍵のデコードはキャッシュに読み込むときだけ行う。
+ * 存在しないcredentialIdはキャッシュしない（任意のIDでキャッシュを埋められないようにするため）。
+ * Passkeyを追加・削除した場合は、トランザクションのコミット後に {@link #invalidate} を呼ぶこと。
+ * 読み込み中に無効化された場合、その読み込み結果はキャッシュされないため（{@link CacheLoads}）、コミット前の値が残ることはない
+ */
+@Component
+public class PasskeyCredentialCache {
+
+    private final AsyncCache<String, PasskeySignatureVerifier> cache;
+    private final PasskeyRepository passkeyRepository;
+    private final CborConverter cborConverter;
+
+    public PasskeyCredentialCache(PasskeyRepository passkeyRepository,
+                                  ObjectConverter webAuthnObjectConverter,
+                                  @Value("${passkey.credential-cache.maximum-size:10000}") long maximumSize,
+                                  @Value("${passkey.credential-cache.ttl:10m}") Duration ttl,
+                                  MeterRegistry meterRegistry) {
+        this.passkeyRepository = passkeyRepository;
+        this.cborConverter = webAuthnObjectConverter.getCborConverter();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "passkey.credentials");
+    }
+
+    public Optional<PasskeySignatureVerifier> get(String credentialId) {
+        return Optional.ofNullable(CacheLoads.getOrLoad(cache, credentialId, key -> passkeyRepository.findCredentialByCredentialId(key)
+                .map(credential -> PasskeySignatureVerifier.create(credential, cborConverter))
+                .orElse(null)));
+    }
+
+    public void invalidate(String credentialId) {
+        cache.synchronous().invalidate(credentialId);
+    }
+
+    public void invalidateAll(Collection<String> credentialIds) {
+        cache.synchronous().invalidateAll(credentialIds);
+    }
+}
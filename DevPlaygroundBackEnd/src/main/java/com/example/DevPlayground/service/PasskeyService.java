@@ -2,22 +2,23 @@ package com.example.DevPlayground.service;
 
 import com.example.DevPlayground.dto.*;
 import com.example.DevPlayground.entity.Passkey;
-import com.example.DevPlayground.entity.PasskeyChallenge;
 import com.example.DevPlayground.entity.Users;
-import com.example.DevPlayground.repository.PasskeyChallengeRepository;
 import com.example.DevPlayground.repository.PasskeyRepository;
 import com.example.DevPlayground.repository.UserRepository;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.security.SecureRandom;
 import java.time.LocalDateTime;
-import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Passkeyに関するサービス
@@ -26,40 +27,42 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class PasskeyService {
 
-    private final PasskeyChallengeRepository passkeyChallengeRepository;
+    private final PasskeyChallengeStore passkeyChallengeStore;
     private final PasskeyRepository passkeyRepository;
+    private final PasskeyCredentialCache passkeyCredentialCache;
+    private final WebAuthnVerifier webAuthnVerifier;
     private final UserRepository userRepository;
-    private final ObjectMapper objectMapper;
-    private final SecureRandom secureRandom = new SecureRandom();
+    private final ClientDataParser clientDataParser;
+    private final MeterRegistry meterRegistry;
+    private final ChallengeGenerator challengeGenerator;
+    // 直近のクリーンアップ後に残っているchallengeの件数
+    private final AtomicLong storedChallenges = new AtomicLong();
+
+    @PostConstruct
+    void registerMetrics() {
+        meterRegistry.gauge("passkey.challenges.stored", storedChallenges);
+    }
 
     /**
      * Passkey登録の開始
-     * usernameを受け取り、challengeを生成してDBに保存し、
+     * usernameを受け取り、challengeを生成してPasskeyChallengeStoreに保存し、
      * WebAuthnの登録オプションを返す
      *
      * @param username ユーザー名
      * @return PasskeyRegistrationStartResponse
      */
-    @Transactional
     public PasskeyRegistrationStartResponse startRegistration(String username) {
         Users user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found: " + username));
 
-        // 既存のchallengeを削除
-        passkeyChallengeRepository.deleteByUsername(username);
-        
-        // 新しいchallengeを生成
-        String challenge = generateChallenge();
-        
-        PasskeyChallenge passkeyChallenge = new PasskeyChallenge();
-        passkeyChallenge.setUsername(username);
-        passkeyChallenge.setChallenge(challenge);
-        passkeyChallengeRepository.save(passkeyChallenge);
+        // 新しいchallengeを生成して、既存のchallengeと置き換える
+        String challenge = challengeGenerator.generate();
+        passkeyChallengeStore.issue(username, challenge);
 
         // WebAuthn registrationオプションを返す
         return new PasskeyRegistrationStartResponse(
                 challenge,
-                new PasskeyRegistrationStartResponse.RelyingParty("localhost", "DevPlayground"),
+                new PasskeyRegistrationStartResponse.RelyingParty(webAuthnVerifier.getRpId(), "DevPlayground"),
                 new PasskeyRegistrationStartResponse.User(
                         user.getId().toString(),
                         user.getUsername(),
@@ -74,8 +77,8 @@ public class PasskeyService {
 
     /**
      * Passkey登録の完了
-     * クライアントからのレスポンスを受け取り、challengeを検証し、
-     * PasskeyをDBに保存する
+     * クライアントからのレスポンスを受け取り、challengeとattestationを検証し、
+     * COSE公開鍵をPasskeyとしてDBに保存する
      *
      * @param request PasskeyRegistrationFinishRequest
      * @return PasskeyRegistrationFinishResponse
@@ -83,148 +86,168 @@ public class PasskeyService {
     @Transactional
     public PasskeyRegistrationFinishResponse finishRegistration(PasskeyRegistrationFinishRequest request) {
         String username = request.getUsername();
-        String challengeFromClient = extractChallengeFromClientData(request.getRegistrationResponse().getClientDataJSON());
-
-        // challengeを検証
-        Optional<PasskeyChallenge> storedChallenge = passkeyChallengeRepository
-                .findByUsernameAndChallenge(username, challengeFromClient);
+        String challengeFromClient = clientDataParser.extractChallenge(
+                request.getRegistrationResponse().getClientDataJSON(), ClientDataParser.TYPE_CREATE);
 
-        if (storedChallenge.isEmpty()) {
+        // challengeを検証して消費する（期限切れでも再利用はできない）
+        PasskeyChallengeStore.ConsumeResult consumed = passkeyChallengeStore.consume(username, challengeFromClient);
+        if (consumed == PasskeyChallengeStore.ConsumeResult.INVALID) {
             return new PasskeyRegistrationFinishResponse(false, "Invalid challenge");
         }
-
-        // 期限切れチェック
-        if (storedChallenge.get().getExpiresAt().isBefore(LocalDateTime.now())) {
-            passkeyChallengeRepository.delete(storedChallenge.get());
+        if (consumed == PasskeyChallengeStore.ConsumeResult.EXPIRED) {
             return new PasskeyRegistrationFinishResponse(false, "Challenge expired");
         }
 
-        Users user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found: " + username));
+        if (userRepository.findByUsername(username).isEmpty()) {
+            throw new RuntimeException("User not found: " + username);
+        }
+
+        // attestationを検証して公開鍵を取り出す
+        WebAuthnVerifier.RegisteredCredential credential = webAuthnVerifier.verifyRegistration(
+                request.getRegistrationResponse().getAttestationObject(),
+                request.getRegistrationResponse().getClientDataJSON(),
+                challengeFromClient);
+        if (!credential.credentialId().equals(request.getRegistrationResponse().getId())) {
+            return new PasskeyRegistrationFinishResponse(false, "Credential id mismatch");
+        }
+        if (passkeyRepository.existsByCredentialId(credential.credentialId())) {
+            return new PasskeyRegistrationFinishResponse(false, "Passkey already registered");
+        }
 
         // Passkeyを保存
         Passkey passkey = new Passkey();
         passkey.setUsername(username);
-        passkey.setCredentialId(request.getRegistrationResponse().getId());
-        passkey.setPublicKey(request.getRegistrationResponse().getAttestationObject());
+        passkey.setCredentialId(credential.credentialId());
+        passkey.setPublicKey(credential.publicKey());
         passkey.setAttestationObject(request.getRegistrationResponse().getAttestationObject());
         passkey.setClientDataJSON(request.getRegistrationResponse().getClientDataJSON());
-        passkey.setSignatureCount(0L);
+        passkey.setSignatureCount(credential.signCount());
         passkeyRepository.save(passkey);
-
-        // challengeを削除
-        passkeyChallengeRepository.delete(storedChallenge.get());
+        invalidateCredentialsAfterCommit(List.of(passkey.getCredentialId()));
 
         return new PasskeyRegistrationFinishResponse(true, "Passkey registered successfully");
     }
 
-    @Transactional
+    /**
+     * Passkeyログインの開始
+     * challengeはPasskeyChallengeStoreに保存するため、DBへの書き込みは発生しない
+     *
+     * @param username ユーザー名
+     * @return PasskeyLoginStartResponse
+     */
     public PasskeyLoginStartResponse startLogin(String username) {
-        Users user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found: " + username));
-
-        // ユーザーのPasskeyを取得
-        List<Passkey> userPasskeys = passkeyRepository.findByUsername(username);
-        if (userPasskeys.isEmpty()) {
+        // ユーザーのPasskeyのcredentialIdだけを取得
+        List<String> credentialIds = passkeyRepository.findCredentialIdsByUsername(username);
+        if (credentialIds.isEmpty()) {
+            // ユーザーが存在するかどうかはPasskeyがない場合だけ確認する
+            if (userRepository.findByUsername(username).isEmpty()) {
+                throw new RuntimeException("User not found: " + username);
+            }
             throw new RuntimeException("No passkeys found for user: " + username);
         }
 
-        // 既存のchallengeを削除
-        passkeyChallengeRepository.deleteByUsername(username);
-        
-        // 新しいchallengeを生成
-        String challenge = generateChallenge();
-        
-        PasskeyChallenge passkeyChallenge = new PasskeyChallenge();
-        passkeyChallenge.setUsername(username);
-        passkeyChallenge.setChallenge(challenge);
-        passkeyChallengeRepository.save(passkeyChallenge);
+        // 新しいchallengeを生成して、既存のchallengeと置き換える
+        String challenge = challengeGenerator.generate();
+        passkeyChallengeStore.issue(username, challenge);
 
         // allowCredentialsを作成
-        List<PasskeyLoginStartResponse.AllowCredentials> allowCredentials = userPasskeys.stream()
-                .map(passkey -> new PasskeyLoginStartResponse.AllowCredentials("public-key", passkey.getCredentialId()))
+        List<PasskeyLoginStartResponse.AllowCredentials> allowCredentials = credentialIds.stream()
+                .map(credentialId -> new PasskeyLoginStartResponse.AllowCredentials("public-key", credentialId))
                 .toList();
 
         return new PasskeyLoginStartResponse(challenge, allowCredentials);
     }
 
-    @Transactional
+    /**
+     * Passkeyログインの完了
+     * challengeは検証時に消費されるため、失敗した場合はログインの開始からやり直す。
+     * 署名はキャッシュ済みの公開鍵で検証し、signCountは増えている場合だけ1回のUPDATEで更新する
+     *
+     * @param request PasskeyLoginFinishRequest
+     * @return PasskeyLoginFinishResponse
+     */
     public PasskeyLoginFinishResponse finishLogin(PasskeyLoginFinishRequest request) {
         String username = request.getUsername();
-        String challengeFromClient = extractChallengeFromClientData(request.getAuthenticationResponse().getClientDataJSON());
-
-        // challengeを検証
-        Optional<PasskeyChallenge> storedChallenge = passkeyChallengeRepository
-                .findByUsernameAndChallenge(username, challengeFromClient);
+        String challengeFromClient = clientDataParser.extractChallenge(
+                request.getAuthenticationResponse().getClientDataJSON(), ClientDataParser.TYPE_GET);
 
-        if (storedChallenge.isEmpty()) {
+        // challengeを検証して消費する
+        PasskeyChallengeStore.ConsumeResult consumed = passkeyChallengeStore.consume(username, challengeFromClient);
+        if (consumed == PasskeyChallengeStore.ConsumeResult.INVALID) {
             return new PasskeyLoginFinishResponse(false, "Invalid challenge", null);
         }
-
-        // 期限切れチェック
-        if (storedChallenge.get().getExpiresAt().isBefore(LocalDateTime.now())) {
-            passkeyChallengeRepository.delete(storedChallenge.get());
+        if (consumed == PasskeyChallengeStore.ConsumeResult.EXPIRED) {
             return new PasskeyLoginFinishResponse(false, "Challenge expired", null);
         }
 
-        // credentialIdでPasskeyを検証
+        // credentialIdでPasskeyを検証（キャッシュから取得し、ユーザー名が一致するものだけを有効とする）
         String credentialId = request.getAuthenticationResponse().getId();
-        Optional<Passkey> passkey = passkeyRepository.findByCredentialIdAndUsername(credentialId, username);
-        
+        Optional<PasskeySignatureVerifier> passkey = passkeyCredentialCache.get(credentialId)
+                .filter(verifier -> verifier.getUsername().equals(username));
+
         if (passkey.isEmpty()) {
             return new PasskeyLoginFinishResponse(false, "Invalid credential", null);
         }
 
-        // challengeを削除
-        passkeyChallengeRepository.delete(storedChallenge.get());
+        // 署名を検証
+        long signCount = webAuthnVerifier.verifyAssertion(passkey.get(),
+                request.getAuthenticationResponse().getAuthenticatorData(),
+                request.getAuthenticationResponse().getClientDataJSON(),
+                request.getAuthenticationResponse().getSignature());
+        if (signCount < 0) {
+            return new PasskeyLoginFinishResponse(false, "Invalid signature", null);
+        }
+
+        // signCountを使わない認証器（同期されるPasskeyなど）は常に0を返すため、その場合は更新しない
+        if (signCount > 0 || passkey.get().getSignatureCount() > 0) {
+            if (passkeyRepository.updateSignatureCountIfGreater(credentialId, signCount, LocalDateTime.now()) == 0) {
+                // 増えていないsignCountは認証器の複製やassertionの再利用の可能性がある
+                return new PasskeyLoginFinishResponse(false, "Invalid signature counter", null);
+            }
+            passkey.get().advanceSignatureCount(signCount);
+        }
 
         return new PasskeyLoginFinishResponse(true, "Login successful", username);
     }
 
     /**
-     * 期限切れのchallengeを定期的にクリーンアップ
-     * TODO Springのスケジューラー等でN時間に1回実行するように設定
+     * ユーザーのPasskeyをすべて削除する
+     * コミット後にcredentialのキャッシュからも削除する
+     *
+     * @param username ユーザー名
      */
     @Transactional
-    public void cleanupExpiredChallenges() {
-        passkeyChallengeRepository.deleteExpiredChallenges(LocalDateTime.now());
+    public void deletePasskeys(String username) {
+        List<String> credentialIds = passkeyRepository.findCredentialIdsByUsername(username);
+        if (credentialIds.isEmpty()) {
+            return;
+        }
+        passkeyRepository.deleteByUsername(username);
+        invalidateCredentialsAfterCommit(credentialIds);
     }
 
     /**
-     * ランダムなchallengeを生成
-     *
-     * @return 生成されたchallenge文字列
+     * 期限切れのchallengeを定期的にクリーンアップ
+     * 実行間隔は passkey.challenge-purge.interval で設定する。
+     * 削除件数(passkey.challenges.purged)、所要時間(passkey.challenges.purge)、
+     * 残りの件数(passkey.challenges.stored)をメトリクスとして公開する
      */
-    private String generateChallenge() {
-        byte[] challengeBytes = new byte[32];
-        secureRandom.nextBytes(challengeBytes);
-        return Base64.getUrlEncoder().withoutPadding().encodeToString(challengeBytes);
+    @Scheduled(initialDelayString = "${passkey.challenge-purge.interval:PT1M}",
+            fixedDelayString = "${passkey.challenge-purge.interval:PT1M}")
+    public void cleanupExpiredChallenges() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        int purged = passkeyChallengeStore.purgeExpired();
+        sample.stop(meterRegistry.timer("passkey.challenges.purge"));
+        meterRegistry.counter("passkey.challenges.purged").increment(purged);
+        storedChallenges.set(passkeyChallengeStore.size());
     }
 
-    /**
-     * ClientDataJSONからchallengeを抽出
-     * Base64デコード後、JacksonでJSONをパースしてchallengeフィールドを取得
-     *
-     * @param clientDataJSON Base64エンコードされたClientDataJSON
-     * @return 抽出されたchallenge文字列
-     */
-    private String extractChallengeFromClientData(String clientDataJSON) {
-        try {
-            // Base64 URLデコード
-            String decodedClientData = new String(Base64.getUrlDecoder().decode(clientDataJSON));
-            
-            // JacksonでJSONをパース
-            JsonNode clientDataNode = objectMapper.readTree(decodedClientData);
-            
-            // challengeフィールドを取得
-            JsonNode challengeNode = clientDataNode.get("challenge");
-            if (challengeNode == null || !challengeNode.isTextual()) {
-                throw new RuntimeException("Challenge field not found or invalid in client data");
+    private void invalidateCredentialsAfterCommit(List<String> credentialIds) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                passkeyCredentialCache.invalidateAll(credentialIds);
             }
-            
-            return challengeNode.asText();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to extract challenge from client data", e);
-        }
+        });
     }
 }
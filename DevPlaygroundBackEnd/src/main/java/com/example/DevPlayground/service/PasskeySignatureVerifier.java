@@ -0,0 +1,110 @@
+package com.example.DevPlayground.service;
+
+import com.example.DevPlayground.dto.PasskeyCredential;
+import com.webauthn4j.converter.util.CborConverter;
+import com.webauthn4j.data.attestation.authenticator.COSEKey;
+import com.webauthn4j.data.attestation.statement.COSEAlgorithmIdentifier;
+
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 1つのPasskeyのassertion署名を検証するオブジェクト
+ * 保存されたCOSE公開鍵のCBORデコードとPublicKeyの生成は作成時に1回だけ行い、
+ * 以降はPasskeyCredentialCacheに保持して使い回す
+ */
+public final class PasskeySignatureVerifier {
+
+    private final String credentialId;
+    private final String username;
+    private final PublicKey publicKey;
+    private final String signatureAlgorithm;
+    // 最後に確認できたsignCount（DBの値より小さいことはあっても大きいことはない）
+    private final AtomicLong signatureCount;
+
+    PasskeySignatureVerifier(String credentialId, String username, PublicKey publicKey, String signatureAlgorithm, long signatureCount) {
+        this.credentialId = credentialId;
+        this.username = username;
+        this.publicKey = publicKey;
+        this.signatureAlgorithm = signatureAlgorithm;
+        this.signatureCount = new AtomicLong(signatureCount);
+    }
+
+    /**
+     * DBから読み込んだPasskeyCredentialから作成する
+     *
+     * @param credential    publicKeyにBase64URLエンコードされたCOSE鍵を持つPasskeyCredential
+     * @param cborConverter COSE鍵のデコードに使うCborConverter
+     */
+    static PasskeySignatureVerifier create(PasskeyCredential credential, CborConverter cborConverter) {
+        COSEKey coseKey = cborConverter.readValue(Base64.getUrlDecoder().decode(credential.publicKey()), COSEKey.class);
+        if (coseKey == null || coseKey.getPublicKey() == null) {
+            throw new RuntimeException("Invalid public key for credential: " + credential.credentialId());
+        }
+        return new PasskeySignatureVerifier(credential.credentialId(), credential.username(), coseKey.getPublicKey(),
+                signatureAlgorithm(coseKey.getAlgorithm()), credential.signatureCount());
+    }
+
+    /**
+     * authenticatorData || SHA-256(clientDataJSON) に対する署名を検証する
+     *
+     * @return 署名が正しい場合はtrue
+     */
+    public boolean verify(byte[] authenticatorData, byte[] clientDataHash, byte[] signature) {
+        try {
+            // Signatureはスレッドセーフではないため検証ごとに作成する
+            Signature verifier = Signature.getInstance(signatureAlgorithm);
+            verifier.initVerify(publicKey);
+            verifier.update(authenticatorData);
+            verifier.update(clientDataHash);
+            return verifier.verify(signature);
+        } catch (GeneralSecurityException e) {
+            return false;
+        }
+    }
+
+    public String getCredentialId() {
+        return credentialId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public long getSignatureCount() {
+        return signatureCount.get();
+    }
+
+    /**
+     * DBのsignCountを更新できた後に呼ぶ
+     */
+    public void advanceSignatureCount(long newSignatureCount) {
+        signatureCount.accumulateAndGet(newSignatureCount, Math::max);
+    }
+
+    private static String signatureAlgorithm(COSEAlgorithmIdentifier algorithm) {
+        if (algorithm == null) {
+            throw new RuntimeException("Public key has no algorithm");
+        }
+        long value = algorithm.getValue();
+        if (value == COSEAlgorithmIdentifier.ES256.getValue()) {
+            return "SHA256withECDSA";
+        }
+        if (value == COSEAlgorithmIdentifier.ES384.getValue()) {
+            return "SHA384withECDSA";
+        }
+        if (value == COSEAlgorithmIdentifier.ES512.getValue()) {
+            return "SHA512withECDSA";
+        }
+        if (value == COSEAlgorithmIdentifier.RS256.getValue()) {
+            return "SHA256withRSA";
+        }
+        if (value == COSEAlgorithmIdentifier.EdDSA.getValue()) {
+            return "Ed25519";
+        }
+        throw new RuntimeException("Unsupported public key algorithm: " + value);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.DevPlayground.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.jackson2.SecurityJackson2Modules;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Packs all attributes of a session into one byte array: a count, then name, format and payload per attribute.
+ * <p>
+ * The security context written by the login endpoints is stored as the JSON of its authentication, using
+ * Spring Security's Jackson modules, whose type allowlist also keeps the store from instantiating arbitrary
+ * classes. That is several times smaller than Java serialization of the same object graph. Any other
+ * attribute falls back to Java serialization. An attribute that can no longer be read (for example after a class changed between
+ * deployments) is dropped with a warning instead of failing the whole session.
+ */
+public class SessionAttributeCodec {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionAttributeCodec.class);
+
+    // JSON of the context's Authentication; the context itself is rebuilt on read
+    private static final byte FORMAT_SECURITY_CONTEXT = 'C';
+    private static final byte FORMAT_SERIALIZED = 'S';
+
+    private final ObjectMapper objectMapper;
+    private final SerializingConverter serializer = new SerializingConverter();
+    private final DeserializingConverter deserializer;
+
+    public SessionAttributeCodec(ClassLoader classLoader) {
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModules(SecurityJackson2Modules.getModules(classLoader));
+        this.deserializer = new DeserializingConverter(classLoader);
+    }
+
+    public byte[] encode(Map<String, Object> attributes) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(attributes.size());
+            for (Map.Entry<String, Object> attribute : attributes.entrySet()) {
+                boolean json = isJsonSafe(attribute.getValue());
+                byte[] payload = json
+                        ? objectMapper.writeValueAsBytes(((SecurityContext) attribute.getValue()).getAuthentication())
+                        : serializer.convert(attribute.getValue());
+                out.writeUTF(attribute.getKey());
+                out.writeByte(json ? FORMAT_SECURITY_CONTEXT : FORMAT_SERIALIZED);
+                out.writeInt(payload.length);
+                out.write(payload);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public Map<String, Object> decode(byte[] encoded) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded))) {
+            int count = in.readInt();
+            Map<String, Object> attributes = new HashMap<>(Math.max(4, count * 2));
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                byte format = in.readByte();
+                byte[] payload = new byte[in.readInt()];
+                in.readFully(payload);
+                try {
+                    attributes.put(name, format == FORMAT_SECURITY_CONTEXT
+                            ? new SecurityContextImpl(objectMapper.readValue(payload, Authentication.class))
+                            : deserializer.convert(payload));
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Dropping unreadable session attribute {}: {}", name, e.toString());
+                }
+            }
+            return attributes;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Only object graphs the security Jackson modules are known to round-trip: a context holding a
+     * username/password token (password login or passkey login) with a {@link User} or plain name.
+     */
+    private static boolean isJsonSafe(Object value) {
+        if (value == null || value.getClass() != SecurityContextImpl.class) {
+            return false;
+        }
+        Authentication authentication = ((SecurityContextImpl) value).getAuthentication();
+        if (authentication == null
+                || authentication.getClass() != UsernamePasswordAuthenticationToken.class
+                || authentication.getCredentials() != null
+                || authentication.getDetails() != null
+                || !hasSimpleAuthorities(authentication.getAuthorities())) {
+            return false;
+        }
+        Object principal = authentication.getPrincipal();
+        return principal instanceof String
+                || (principal != null && principal.getClass() == User.class
+                && hasSimpleAuthorities(((User) principal).getAuthorities()));
+    }
+
+    private static boolean hasSimpleAuthorities(Collection<? extends GrantedAuthority> authorities) {
+        for (GrantedAuthority authority : authorities) {
+            if (authority.getClass() != SimpleGrantedAuthority.class) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
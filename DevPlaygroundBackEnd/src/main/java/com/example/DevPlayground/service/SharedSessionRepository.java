@@ -0,0 +1,525 @@
+package com.example.DevPlayground.service;
+
+import com.example.DevPlayground.entity.StoredSession;
+import com.example.DevPlayground.repository.StoredSessionRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.session.Session;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.events.SessionCreatedEvent;
+import org.springframework.session.events.SessionDeletedEvent;
+import org.springframework.session.events.SessionExpiredEvent;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.security.DrbgParameters;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Spring Session repository backed by the http_sessions table, so any node can serve any session.
+ * <p>
+ * Writes are lazy: the attribute blob is rewritten only after setAttribute/removeAttribute, and a request
+ * that only touched the session updates the last-access columns once per {@code accessWriteInterval} rather
+ * than on every request. To make up for that lag, a stored session is treated as live for
+ * {@code accessWriteInterval} longer than its max inactive interval.
+ * <p>
+ * Each node keeps a near cache of the serialized rows, but every lookup first reads the row's small columns
+ * (attribute version and access times) by session id. A session deleted or re-keyed on another node is
+ * therefore gone here on the very next request, and a cached blob is reused only while its version is
+ * still current. Every request decodes its own copy, so concurrent requests never share mutable attributes.
+ * <p>
+ * Attribute writes are per attribute: save() writes the blob only if nobody else has written it since it
+ * was read, and otherwise re-applies just the attributes this request set or removed on top of the current
+ * row and tries again. Two nodes changing different attributes of one session thus both keep their changes.
+ * <p>
+ * The principal name is kept in its own indexed column, so that session concurrency control can list a
+ * user's sessions on any node (see {@link FindByIndexNameSessionRepository}).
+ * <p>
+ * Within one request, findById of the request's session returns the instance found first, so the session
+ * filter and the concurrency check of {@link org.springframework.session.security.SpringSessionBackedSessionRegistry}
+ * read and decode the row once between them.
+ * <p>
+ * Session ids come from a DRBG that is seeded once, like {@link ChallengeGenerator}'s challenges, rather than
+ * from UUID.randomUUID(), whose shared SecureRandom reads /dev/urandom under a global lock on every call.
+ * <p>
+ * Only setAttribute marks an attribute dirty; an object that is changed in place must be set again.
+ */
+public class SharedSessionRepository implements FindByIndexNameSessionRepository<SharedSessionRepository.SharedSession> {
+
+    private static final int SESSION_ID_BYTES = 32;
+    private static final int PRIMARY_ID_BYTES = 16;
+    private static final SecureRandom ID_RANDOM = seededDrbg();
+    private static final String REQUEST_SESSION_ATTR = SharedSessionRepository.class.getName() + ".SESSION";
+
+    private final StoredSessionRepository storedSessionRepository;
+    private final SessionAttributeCodec codec;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final AsyncCache<String, Snapshot> nearCache;
+    private final Duration defaultMaxInactiveInterval;
+    private final long accessWriteIntervalMillis;
+    private final int purgeChunkSize;
+
+    public SharedSessionRepository(StoredSessionRepository storedSessionRepository,
+                                   SessionAttributeCodec codec,
+                                   ApplicationEventPublisher eventPublisher,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   Duration defaultMaxInactiveInterval,
+                                   Duration accessWriteInterval,
+                                   long nearCacheMaximumSize,
+                                   Duration nearCacheTtl,
+                                   int purgeChunkSize) {
+        this.storedSessionRepository = storedSessionRepository;
+        this.codec = codec;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.defaultMaxInactiveInterval = defaultMaxInactiveInterval;
+        this.accessWriteIntervalMillis = accessWriteInterval.toMillis();
+        this.purgeChunkSize = purgeChunkSize;
+        this.nearCache = Caffeine.newBuilder()
+                .maximumSize(nearCacheMaximumSize)
+                .expireAfterAccess(nearCacheTtl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, nearCache, "session.near");
+    }
+
+    @Override
+    public SharedSession createSession() {
+        long now = System.currentTimeMillis();
+        return new SharedSession(newId(PRIMARY_ID_BYTES), newId(SESSION_ID_BYTES), now, now,
+                (int) defaultMaxInactiveInterval.toSeconds(), new HashMap<>(), true);
+    }
+
+    @Override
+    public void save(SharedSession session) {
+        if (session.isNew) {
+            insert(session);
+            eventPublisher.publishEvent(new SessionCreatedEvent(this, session));
+            return;
+        }
+        boolean idChanged = !session.id.equals(session.persistedId);
+        boolean accessDue = session.lastAccessedTime - session.persistedLastAccessedTime >= accessWriteIntervalMillis
+                || session.maxInactiveInterval != session.persistedMaxInactiveInterval;
+        boolean attributesChanged = !session.changedAttributes.isEmpty();
+        if (!idChanged && !attributesChanged && !accessDue) {
+            return;
+        }
+        long expiryTime = expiryTime(session.lastAccessedTime, session.maxInactiveInterval);
+        byte[] attributes = attributesChanged ? codec.encode(session.attributes) : null;
+        long attributesVersion = session.persistedAttributesVersion;
+        while (true) {
+            byte[] encoded = attributes;
+            long expectedVersion = attributesVersion;
+            String principalName = principalName(session.attributes);
+            Integer updated = transactionTemplate.execute(status -> {
+                int rows = 1;
+                if (idChanged) {
+                    rows = storedSessionRepository.updateSessionId(session.primaryId, session.id);
+                }
+                if (rows > 0 && encoded != null) {
+                    rows = storedSessionRepository.updateAttributes(session.primaryId, encoded, expectedVersion,
+                            principalName, session.lastAccessedTime, session.maxInactiveInterval, expiryTime);
+                } else if (rows > 0 && accessDue) {
+                    rows = storedSessionRepository.updateAccess(session.primaryId,
+                            session.lastAccessedTime, session.maxInactiveInterval, expiryTime);
+                }
+                return rows;
+            });
+            if (updated != null && updated > 0) {
+                if (encoded != null) {
+                    attributesVersion = expectedVersion + 1;
+                }
+                break;
+            }
+            // Either the row is gone or another node wrote the attributes after we read them
+            StoredSession current = encoded == null ? null
+                    : storedSessionRepository.findById(session.primaryId).orElse(null);
+            if (current == null) {
+                // Deleted elsewhere (logout on another node or expiry); do not bring it back
+                nearCache.synchronous().invalidate(session.persistedId);
+                nearCache.synchronous().invalidate(session.id);
+                return;
+            }
+            session.rebase(codec.decode(current.getAttributes()));
+            attributes = codec.encode(session.attributes);
+            attributesVersion = current.getAttributesVersion();
+        }
+        nearCache.synchronous().invalidate(session.persistedId);
+        byte[] stored = attributes != null ? attributes : session.persistedAttributes;
+        long storedAccess = attributes != null || accessDue ? session.lastAccessedTime : session.persistedLastAccessedTime;
+        session.markPersisted(stored, attributesVersion, storedAccess, expiryTime(storedAccess, session.maxInactiveInterval));
+        nearCache.synchronous().put(session.id, Snapshot.of(session));
+    }
+
+    @Override
+    public SharedSession findById(String id) {
+        SharedSession found = requestSession(id);
+        if (found != null) {
+            return found;
+        }
+        StoredSessionRepository.SessionState state = storedSessionRepository.findStateBySessionId(id).orElse(null);
+        if (state == null) {
+            nearCache.synchronous().invalidate(id);
+            return null;
+        }
+        Snapshot snapshot = CacheLoads.getOrLoad(nearCache, id, this::load);
+        if (snapshot != null && snapshot.attributesVersion() != state.getAttributesVersion()) {
+            // Attributes were written on another node since this one cached them
+            snapshot = load(id);
+            if (snapshot != null) {
+                nearCache.synchronous().put(id, snapshot);
+            }
+        }
+        if (snapshot == null) {
+            nearCache.synchronous().invalidate(id);
+            return null;
+        }
+        SharedSession session = snapshot.withAccess(state).toSession(codec);
+        if (state.getExpiryTime() < System.currentTimeMillis()) {
+            delete(session, true);
+            return null;
+        }
+        rememberForRequest(session);
+        return session;
+    }
+
+    /**
+     * Only {@link #PRINCIPAL_NAME_INDEX_NAME} is indexed. Sessions past their expiry are left out.
+     */
+    @Override
+    public Map<String, SharedSession> findByIndexNameAndIndexValue(String indexName, String indexValue) {
+        if (!PRINCIPAL_NAME_INDEX_NAME.equals(indexName)) {
+            return Map.of();
+        }
+        long now = System.currentTimeMillis();
+        Map<String, SharedSession> sessions = new HashMap<>();
+        for (StoredSession stored : storedSessionRepository.findByPrincipalName(indexValue)) {
+            if (stored.getExpiryTime() >= now) {
+                sessions.put(stored.getSessionId(), Snapshot.of(stored).toSession(codec));
+            }
+        }
+        return sessions;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        SharedSession session = findById(id);
+        if (session != null) {
+            delete(session, false);
+        }
+    }
+
+    /**
+     * Deletes expired sessions in chunks of {@code purgeChunkSize}, each in its own transaction, and publishes
+     * a {@link SessionExpiredEvent} for each of them. Nodes purging at the same moment may both publish one.
+     *
+     * @return number of sessions removed
+     */
+    @Scheduled(initialDelayString = "${app.session.purge-interval:PT1M}",
+            fixedDelayString = "${app.session.purge-interval:PT1M}")
+    public int purgeExpired() {
+        long now = System.currentTimeMillis();
+        PageRequest chunk = PageRequest.of(0, purgeChunkSize);
+        int purged = 0;
+        while (true) {
+            List<StoredSession> expired = storedSessionRepository.findExpired(now, chunk);
+            if (expired.isEmpty()) {
+                return purged;
+            }
+            List<String> primaryIds = expired.stream().map(StoredSession::getPrimaryId).toList();
+            Integer deleted = transactionTemplate.execute(status -> storedSessionRepository.deleteExpired(primaryIds, now));
+            purged += deleted == null ? 0 : deleted;
+            for (StoredSession stored : expired) {
+                nearCache.synchronous().invalidate(stored.getSessionId());
+                eventPublisher.publishEvent(new SessionExpiredEvent(this, Snapshot.of(stored).toSession(codec)));
+            }
+            if (expired.size() < purgeChunkSize) {
+                return purged;
+            }
+        }
+    }
+
+    private Snapshot load(String id) {
+        return storedSessionRepository.findBySessionId(id).map(Snapshot::of).orElse(null);
+    }
+
+    private void insert(SharedSession session) {
+        byte[] attributes = codec.encode(session.attributes);
+        StoredSession stored = new StoredSession();
+        stored.setPrimaryId(session.primaryId);
+        stored.setSessionId(session.id);
+        stored.setCreationTime(session.creationTime);
+        stored.setLastAccessedTime(session.lastAccessedTime);
+        stored.setMaxInactiveInterval(session.maxInactiveInterval);
+        stored.setExpiryTime(expiryTime(session.lastAccessedTime, session.maxInactiveInterval));
+        stored.setAttributes(attributes);
+        stored.setPrincipalName(principalName(session.attributes));
+        transactionTemplate.executeWithoutResult(status -> storedSessionRepository.save(stored));
+        session.markPersisted(attributes, stored.getAttributesVersion(), stored.getLastAccessedTime(),
+                stored.getExpiryTime());
+        nearCache.synchronous().put(session.id, Snapshot.of(session));
+    }
+
+    private void delete(SharedSession session, boolean expired) {
+        Integer deleted = transactionTemplate.execute(status -> storedSessionRepository.deleteBySessionId(session.id));
+        nearCache.synchronous().invalidate(session.id);
+        forgetForRequest(session);
+        if (deleted != null && deleted > 0) {
+            eventPublisher.publishEvent(expired
+                    ? new SessionExpiredEvent(this, session)
+                    : new SessionDeletedEvent(this, session));
+        }
+    }
+
+    /**
+     * @return the session this request already found under {@code id}, if any
+     */
+    private static SharedSession requestSession(String id) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null
+                && request.getAttribute(REQUEST_SESSION_ATTR, RequestAttributes.SCOPE_REQUEST) instanceof SharedSession session
+                && session.id.equals(id)) {
+            return session;
+        }
+        return null;
+    }
+
+    private static void rememberForRequest(SharedSession session) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            request.setAttribute(REQUEST_SESSION_ATTR, session, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    private static void forgetForRequest(SharedSession session) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null && request.getAttribute(REQUEST_SESSION_ATTR, RequestAttributes.SCOPE_REQUEST) == session) {
+            request.removeAttribute(REQUEST_SESSION_ATTR, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    private static SecureRandom seededDrbg() {
+        SecureRandom random;
+        try {
+            random = SecureRandom.getInstance("DRBG",
+                    DrbgParameters.instantiation(256, DrbgParameters.Capability.RESEED_ONLY, null));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("DRBG is not available", e);
+        }
+        // Seeded from the entropy source on first use
+        random.nextBytes(new byte[1]);
+        return random;
+    }
+
+    private static String newId(int bytes) {
+        byte[] id = new byte[bytes];
+        ID_RANDOM.nextBytes(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id);
+    }
+
+    private static String principalName(Map<String, Object> attributes) {
+        if (attributes.get(PRINCIPAL_NAME_INDEX_NAME) instanceof String principalName) {
+            return principalName;
+        }
+        if (attributes.get(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY) instanceof SecurityContext context
+                && context.getAuthentication() != null) {
+            return context.getAuthentication().getName();
+        }
+        return null;
+    }
+
+    private long expiryTime(long lastAccessedTime, int maxInactiveInterval) {
+        if (maxInactiveInterval < 0) {
+            return Long.MAX_VALUE;
+        }
+        return lastAccessedTime + maxInactiveInterval * 1000L + accessWriteIntervalMillis;
+    }
+
+    /**
+     * What the near cache holds: the row as stored, attributes still serialized.
+     */
+    private record Snapshot(String primaryId, String sessionId, long creationTime, long lastAccessedTime,
+                            int maxInactiveInterval, long expiryTime, long attributesVersion, byte[] attributes) {
+
+        static Snapshot of(StoredSession stored) {
+            return new Snapshot(stored.getPrimaryId(), stored.getSessionId(), stored.getCreationTime(),
+                    stored.getLastAccessedTime(), stored.getMaxInactiveInterval(), stored.getExpiryTime(),
+                    stored.getAttributesVersion(), stored.getAttributes());
+        }
+
+        static Snapshot of(SharedSession session) {
+            return new Snapshot(session.primaryId, session.id, session.creationTime,
+                    session.persistedLastAccessedTime, session.persistedMaxInactiveInterval,
+                    session.persistedExpiryTime, session.persistedAttributesVersion, session.persistedAttributes);
+        }
+
+        /**
+         * The access columns may have moved on since the row was cached; they come from the revalidation read.
+         */
+        Snapshot withAccess(StoredSessionRepository.SessionState state) {
+            return new Snapshot(primaryId, sessionId, creationTime, state.getLastAccessedTime(),
+                    state.getMaxInactiveInterval(), state.getExpiryTime(), attributesVersion, attributes);
+        }
+
+        SharedSession toSession(SessionAttributeCodec codec) {
+            SharedSession session = new SharedSession(primaryId, sessionId, creationTime, lastAccessedTime,
+                    maxInactiveInterval, codec.decode(attributes), false);
+            session.persistedAttributes = attributes;
+            session.persistedAttributesVersion = attributesVersion;
+            session.persistedExpiryTime = expiryTime;
+            return session;
+        }
+    }
+
+    public static final class SharedSession implements Session {
+        private final String primaryId;
+        private final long creationTime;
+        private final Map<String, Object> attributes;
+        private String id;
+        private long lastAccessedTime;
+        private int maxInactiveInterval;
+        private boolean isNew;
+        // Set or removed since the last save; these are what save() re-applies over a concurrent write
+        private final Set<String> changedAttributes = new HashSet<>();
+
+        // State of the row as last read or written, to decide what save() has to write
+        private String persistedId;
+        private long persistedLastAccessedTime;
+        private int persistedMaxInactiveInterval;
+        private long persistedExpiryTime;
+        private long persistedAttributesVersion;
+        private byte[] persistedAttributes;
+
+        private SharedSession(String primaryId, String id, long creationTime, long lastAccessedTime,
+                              int maxInactiveInterval, Map<String, Object> attributes, boolean isNew) {
+            this.primaryId = primaryId;
+            this.id = id;
+            this.creationTime = creationTime;
+            this.lastAccessedTime = lastAccessedTime;
+            this.maxInactiveInterval = maxInactiveInterval;
+            this.attributes = attributes;
+            this.isNew = isNew;
+            this.persistedId = id;
+            this.persistedLastAccessedTime = lastAccessedTime;
+            this.persistedMaxInactiveInterval = maxInactiveInterval;
+        }
+
+        private void markPersisted(byte[] storedAttributes, long storedAttributesVersion, long storedAccessTime,
+                                   long storedExpiryTime) {
+            isNew = false;
+            changedAttributes.clear();
+            persistedId = id;
+            persistedAttributes = storedAttributes;
+            persistedAttributesVersion = storedAttributesVersion;
+            persistedLastAccessedTime = storedAccessTime;
+            persistedMaxInactiveInterval = maxInactiveInterval;
+            persistedExpiryTime = storedExpiryTime;
+        }
+
+        /**
+         * Replaces the attributes with {@code stored} plus this session's own changes.
+         */
+        private void rebase(Map<String, Object> stored) {
+            for (String name : changedAttributes) {
+                Object value = attributes.get(name);
+                if (value == null) {
+                    stored.remove(name);
+                } else {
+                    stored.put(name, value);
+                }
+            }
+            attributes.clear();
+            attributes.putAll(stored);
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public String changeSessionId() {
+            id = newId(SESSION_ID_BYTES);
+            return id;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T getAttribute(String attributeName) {
+            return (T) attributes.get(attributeName);
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            return Set.copyOf(attributes.keySet());
+        }
+
+        @Override
+        public void setAttribute(String attributeName, Object attributeValue) {
+            if (attributeValue == null) {
+                removeAttribute(attributeName);
+                return;
+            }
+            attributes.put(attributeName, attributeValue);
+            changedAttributes.add(attributeName);
+        }
+
+        @Override
+        public void removeAttribute(String attributeName) {
+            if (attributes.remove(attributeName) != null) {
+                changedAttributes.add(attributeName);
+            }
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return Instant.ofEpochMilli(creationTime);
+        }
+
+        @Override
+        public void setLastAccessedTime(Instant lastAccessedTime) {
+            this.lastAccessedTime = lastAccessedTime.toEpochMilli();
+        }
+
+        @Override
+        public Instant getLastAccessedTime() {
+            return Instant.ofEpochMilli(lastAccessedTime);
+        }
+
+        @Override
+        public void setMaxInactiveInterval(Duration interval) {
+            this.maxInactiveInterval = (int) interval.toSeconds();
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return Duration.ofSeconds(maxInactiveInterval);
+        }
+
+        @Override
+        public boolean isExpired() {
+            return maxInactiveInterval >= 0
+                    && System.currentTimeMillis() - lastAccessedTime >= maxInactiveInterval * 1000L;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.DevPlayground.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel for wall-clock deadlines.
+ * <p>
+ * Scheduling and cancelling are O(1). Each level has {@code wheelSize} buckets of {@code tick * wheelSize^level}
+ * milliseconds and overflow levels are created on demand, so deadlines can lie arbitrarily far ahead.
+ * Only non-empty buckets sit in a DelayQueue, which means a thread calling {@link #advance} sleeps until
+ * the next bucket is due instead of ticking through empty slots. Timeouts never fire early and at most
+ * one tick late.
+ */
+public class TimingWheel<T> {
+
+    private final DelayQueue<Bucket<T>> queue = new DelayQueue<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong pending = new AtomicLong();
+    private final Level<T> root;
+
+    public TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        this.root = new Level<>(tickMillis, wheelSize, startMillis, queue, true);
+    }
+
+    /**
+     * @return false if the deadline has already passed; the timeout is then not scheduled and the caller
+     *         should handle it right away
+     */
+    public boolean schedule(Timeout<T> timeout) {
+        lock.lock();
+        try {
+            if (!root.add(timeout)) {
+                return false;
+            }
+        } finally {
+            lock.unlock();
+        }
+        pending.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Like {@link #schedule}, but a timeout whose deadline has already passed is handed to the next
+     * {@link #advance} instead of being rejected, so it expires on the thread that advances the wheel.
+     */
+    public void scheduleOrExpire(Timeout<T> timeout) {
+        lock.lock();
+        try {
+            if (!root.add(timeout)) {
+                root.addToCurrentTick(timeout);
+            }
+        } finally {
+            lock.unlock();
+        }
+        pending.incrementAndGet();
+    }
+
+    /**
+     * Waits up to timeoutMillis for the next bucket to become due and passes every expired, non-cancelled
+     * payload to the consumer. Meant to be called in a loop by a single thread.
+     *
+     * @return the number of payloads that expired
+     */
+    public int advance(long timeoutMillis, Consumer<T> onExpired) throws InterruptedException {
+        Bucket<T> bucket = queue.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+        if (bucket == null) {
+            return 0;
+        }
+        List<Timeout<T>> expired = new ArrayList<>();
+        lock.lock();
+        try {
+            while (bucket != null) {
+                root.advanceClock(bucket.getExpiration());
+                for (Timeout<T> timeout : bucket.drain()) {
+                    if (timeout.isCancelled()) {
+                        pending.decrementAndGet();
+                    } else if (!root.add(timeout)) {
+                        // Due now; entries from coarser levels are otherwise cascaded into finer buckets
+                        expired.add(timeout);
+                    }
+                }
+                bucket = queue.poll();
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (Timeout<T> timeout : expired) {
+            pending.decrementAndGet();
+            onExpired.accept(timeout.payload());
+        }
+        return expired.size();
+    }
+
+    /**
+     * Timeouts that are scheduled and not yet fired; cancelled ones count until their bucket comes due.
+     */
+    public long pending() {
+        return pending.get();
+    }
+
+    public static final class Timeout<T> {
+        private final long expirationMillis;
+        private final T payload;
+        private volatile boolean cancelled;
+
+        public Timeout(long expirationMillis, T payload) {
+            this.expirationMillis = expirationMillis;
+            this.payload = payload;
+        }
+
+        public T payload() {
+            return payload;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private static final class Level<T> {
+        private final long tickMillis;
+        private final int wheelSize;
+        private final long intervalMillis;
+        private final Bucket<T>[] buckets;
+        private final DelayQueue<Bucket<T>> queue;
+        // The finest level fires a bucket at the end of its tick so nothing fires early; coarser levels
+        // hand their buckets down at the start of the range so that finer levels can place them in time
+        private final boolean finest;
+        private long currentTime;
+        private Level<T> overflow;
+
+        @SuppressWarnings("unchecked")
+        Level(long tickMillis, int wheelSize, long startMillis, DelayQueue<Bucket<T>> queue, boolean finest) {
+            this.tickMillis = tickMillis;
+            this.wheelSize = wheelSize;
+            this.intervalMillis = tickMillis * wheelSize;
+            this.queue = queue;
+            this.finest = finest;
+            this.currentTime = startMillis - (startMillis % tickMillis);
+            this.buckets = new Bucket[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new Bucket<>();
+            }
+        }
+
+        boolean add(Timeout<T> timeout) {
+            long expiration = timeout.expirationMillis;
+            if (expiration < currentTime) {
+                return false;
+            }
+            if (expiration < currentTime + intervalMillis) {
+                long virtualId = expiration / tickMillis;
+                Bucket<T> bucket = buckets[(int) (virtualId % wheelSize)];
+                bucket.add(timeout);
+                if (bucket.setExpiration((finest ? virtualId + 1 : virtualId) * tickMillis)) {
+                    queue.offer(bucket);
+                }
+                return true;
+            }
+            if (overflow == null) {
+                overflow = new Level<>(intervalMillis, wheelSize, currentTime, queue, false);
+            }
+            return overflow.add(timeout);
+        }
+
+        /**
+         * Only called on the finest level; the bucket comes due at the end of the current tick.
+         */
+        void addToCurrentTick(Timeout<T> timeout) {
+            long virtualId = currentTime / tickMillis;
+            Bucket<T> bucket = buckets[(int) (virtualId % wheelSize)];
+            bucket.add(timeout);
+            if (bucket.setExpiration((virtualId + 1) * tickMillis)) {
+                queue.offer(bucket);
+            }
+        }
+
+        void advanceClock(long timeMillis) {
+            if (timeMillis >= currentTime + tickMillis) {
+                currentTime = timeMillis - (timeMillis % tickMillis);
+                if (overflow != null) {
+                    overflow.advanceClock(currentTime);
+                }
+            }
+        }
+    }
+
+    private static final class Bucket<T> implements Delayed {
+        private final AtomicLong expiration = new AtomicLong(-1);
+        private List<Timeout<T>> timeouts = new ArrayList<>();
+
+        void add(Timeout<T> timeout) {
+            timeouts.add(timeout);
+        }
+
+        List<Timeout<T>> drain() {
+            List<Timeout<T>> drained = timeouts;
+            timeouts = new ArrayList<>();
+            expiration.set(-1);
+            return drained;
+        }
+
+        /**
+         * @return true if the expiration changed, in which case the bucket must be (re)queued
+         */
+        boolean setExpiration(long expirationMillis) {
+            return expiration.getAndSet(expirationMillis) != expirationMillis;
+        }
+
+        long getExpiration() {
+            return expiration.get();
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Math.max(0, getExpiration() - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getExpiration(), ((Bucket<?>) other).getExpiration());
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.DevPlayground.service;
+
+import com.example.DevPlayground.entity.Todo;
+
+/**
+ * Published by TodoService after a write transaction has committed.
+ *
+ * @param todo        the todo after the change, or null when it was deleted or changed by a conditional UPDATE
+ * @param patch       the fields written by a conditional UPDATE, or null when todo is set
+ * @param version     the todo's version after the change, or null when it was deleted
+ * @param listVersion this node's event sequence for the user once the transaction's changes are visible
+ */
+public record TodoChangedEvent(ChangeType type, String userName, Long todoId, Todo todo, TodoPatch patch, Long version,
+                               long listVersion) {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
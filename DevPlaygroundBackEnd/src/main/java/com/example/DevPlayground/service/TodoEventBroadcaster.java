@@ -0,0 +1,125 @@
+package com.example.DevPlayground.service;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Pushes TodoChangedEvents and TodoReminderEvents to the server-sent-event subscribers of the affected user.
+ * Sends run on the application task executor so that a slow client never holds up the writing request.
+ * <p>
+ * Change events are only published on the node that made the change. For subscribers on other nodes, the
+ * list ETags of subscribed users are polled every todo.events.change-poll-interval, and a {@code changed}
+ * event with the new ETag is sent when one moves; clients then refetch the list. Local changes are also
+ * seen by the poll, so a subscriber may get a {@code changed} event after the detailed one.
+ */
+@Component
+public class TodoEventBroadcaster {
+
+    private static final long EMITTER_TIMEOUT_MILLIS = Duration.ofMinutes(30).toMillis();
+    private static final int POLL_CHUNK_SIZE = 500;
+
+    private final ConcurrentHashMap<String, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, String> polledETags = new ConcurrentHashMap<>();
+    private final TaskExecutor taskExecutor;
+    private final TodoListVersions todoListVersions;
+
+    public TodoEventBroadcaster(@Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                                TodoListVersions todoListVersions) {
+        this.taskExecutor = taskExecutor;
+        this.todoListVersions = todoListVersions;
+    }
+
+    public SseEmitter subscribe(String userName) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MILLIS);
+        subscribers.compute(userName, (key, emitters) -> {
+            Set<SseEmitter> current = emitters == null ? ConcurrentHashMap.newKeySet() : emitters;
+            current.add(emitter);
+            return current;
+        });
+        emitter.onCompletion(() -> unsubscribe(userName, emitter));
+        emitter.onTimeout(() -> unsubscribe(userName, emitter));
+        emitter.onError(error -> unsubscribe(userName, emitter));
+        return emitter;
+    }
+
+    @EventListener
+    public void onTodoChanged(TodoChangedEvent event) {
+        broadcast(event.userName(), () -> SseEmitter.event()
+                .id(Long.toString(event.listVersion()))
+                .name(event.type().name().toLowerCase())
+                .data(event));
+    }
+
+    @EventListener
+    public void onTodoReminder(TodoReminderEvent event) {
+        broadcast(event.userName(), () -> SseEmitter.event()
+                .name("reminder")
+                .data(event));
+    }
+
+    @Scheduled(fixedDelayString = "${todo.events.change-poll-interval:PT2S}")
+    public void pollListChanges() {
+        List<String> userNames = new ArrayList<>(subscribers.keySet());
+        for (int from = 0; from < userNames.size(); from += POLL_CHUNK_SIZE) {
+            List<String> chunk = userNames.subList(from, Math.min(userNames.size(), from + POLL_CHUNK_SIZE));
+            for (Map.Entry<String, String> entry : todoListVersions.eTags(chunk).entrySet()) {
+                String userName = entry.getKey();
+                String eTag = entry.getValue();
+                String previous = polledETags.put(userName, eTag);
+                if (previous != null && !previous.equals(eTag)) {
+                    broadcast(userName, () -> SseEmitter.event()
+                            .name("changed")
+                            .data(new ListChanged(userName, eTag)));
+                }
+            }
+        }
+        polledETags.keySet().retainAll(Set.copyOf(userNames));
+    }
+
+    // Builders accumulate state when sent, so every emitter gets a fresh one
+    private void broadcast(String userName, Supplier<SseEmitter.SseEventBuilder> event) {
+        Set<SseEmitter> emitters = subscribers.get(userName);
+        if (emitters == null || emitters.isEmpty()) {
+            return;
+        }
+        taskExecutor.execute(() -> {
+            for (SseEmitter emitter : emitters) {
+                send(userName, emitter, event.get());
+            }
+        });
+    }
+
+    private void send(String userName, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            // The client has gone away; the container reports completion separately
+            unsubscribe(userName, emitter);
+        }
+    }
+
+    private void unsubscribe(String userName, SseEmitter emitter) {
+        subscribers.computeIfPresent(userName, (key, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+
+    /**
+     * Data of a {@code changed} event: the user's list has a new ETag.
+     */
+    public record ListChanged(String userName, String eTag) {}
+}
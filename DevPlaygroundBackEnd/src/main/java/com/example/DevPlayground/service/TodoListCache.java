@@ -0,0 +1,71 @@
+package com.example.DevPlayground.service;
+
+import com.example.DevPlayground.entity.Todo;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Bounded per-user cache of todo lists, evicted by size and by time since the list was loaded.
+ * <p>
+ * Each list is kept with the ETag it was loaded under (see {@link TodoListVersions}) and is only served to
+ * callers that present the same tag, so a list changed through another node is reloaded rather than served
+ * stale. Writers on this node still call {@link #invalidate} after their transaction commits to free the
+ * entry early. An invalidation that arrives while a load of the same key is in flight discards that load
+ * (see {@link CacheLoads}).
+ */
+@Component
+public class TodoListCache {
+
+    private final AsyncCache<String, CachedList> cache;
+
+    public TodoListCache(@Value("${todo.cache.maximum-size:10000}") long maximumSize,
+                         @Value("${todo.cache.ttl:30s}") Duration ttl,
+                         MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        // Exposes cache.gets{result=hit|miss}, cache.evictions and cache.size
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "todo.list");
+    }
+
+    /**
+     * @param eTag the user's current list ETag, read before this call; the loaded list is at least as new
+     */
+    public List<Todo> get(String userName, String eTag, Function<String, List<Todo>> loader) {
+        CachedList cached = CacheLoads.getOrLoad(cache, userName,
+                key -> new CachedList(eTag, List.copyOf(loader.apply(key))));
+        if (cached.eTag().equals(eTag)) {
+            return cached.todos();
+        }
+        // Written since it was cached, possibly on another node
+        CachedList reloaded = new CachedList(eTag, List.copyOf(loader.apply(userName)));
+        cache.synchronous().put(userName, reloaded);
+        return reloaded.todos();
+    }
+
+    public void invalidate(String userName) {
+        cache.synchronous().invalidate(userName);
+    }
+
+    public void invalidateAll(Collection<String> userNames) {
+        cache.synchronous().invalidateAll(userNames);
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    private record CachedList(String eTag, List<Todo> todos) {}
+}
@@ -0,0 +1,110 @@
+package com.example.DevPlayground.service;
+
+import com.example.DevPlayground.entity.TodoListVersion;
+import com.example.DevPlayground.repository.TodoListVersionRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ETags of todo lists, and the per-node sequence used as ids of this node's change events.
+ * <p>
+ * An ETag is the user's row in todo_list_versions, which every write increments in its own transaction
+ * (see {@link #incrementInTransaction}), so all nodes compute the same tag for the same data and no write
+ * can leave it unchanged. Tags are cached for ttl; this node drops a user's tag when its own write commits,
+ * so only writes through other nodes can take up to ttl to show. {@link #eTags}, used to notice those writes,
+ * always reads the table.
+ */
+@Component
+public class TodoListVersions {
+
+    private final TodoListVersionRepository todoListVersionRepository;
+    private final TransactionTemplate insertTransaction;
+    private final AsyncCache<String, Long> versions;
+    private final ConcurrentHashMap<String, AtomicLong> sequences = new ConcurrentHashMap<>();
+
+    public TodoListVersions(TodoListVersionRepository todoListVersionRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${todo.list-version.maximum-size:10000}") long maximumSize,
+                            @Value("${todo.list-version.ttl:2s}") Duration ttl) {
+        this.todoListVersionRepository = todoListVersionRepository;
+        // A failed insert must not roll back the write that needed the row
+        this.insertTransaction = new TransactionTemplate(transactionManager);
+        this.insertTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .buildAsync();
+    }
+
+    public String eTag(String userName) {
+        return eTag(CacheLoads.getOrLoad(versions, userName,
+                key -> todoListVersionRepository.findVersionByUserName(key).orElse(0L)));
+    }
+
+    /**
+     * ETags of several users with one query; users without a version row get the tag of version 0.
+     */
+    public Map<String, String> eTags(Collection<String> userNames) {
+        Map<String, String> eTags = new HashMap<>();
+        userNames.forEach(userName -> eTags.put(userName, eTag(0)));
+        for (TodoListVersion row : todoListVersionRepository.findByUserNameIn(userNames)) {
+            eTags.put(row.getUserName(), eTag(row.getVersion()));
+        }
+        return eTags;
+    }
+
+    /**
+     * Increments the versions of the given users in the current transaction, creating missing rows first.
+     * The rows stay locked until the transaction ends, so callers should do this just before commit.
+     */
+    public void incrementInTransaction(Collection<String> userNames) {
+        if (userNames.isEmpty() || todoListVersionRepository.incrementAll(userNames) == userNames.size()) {
+            return;
+        }
+        // First write of a user: the row is created in its own transaction, racing writers of other nodes
+        Set<String> missing = new HashSet<>(userNames);
+        todoListVersionRepository.findByUserNameIn(userNames).forEach(row -> missing.remove(row.getUserName()));
+        for (String userName : missing) {
+            try {
+                insertTransaction.executeWithoutResult(status -> todoListVersionRepository.insert(userName));
+            } catch (DataIntegrityViolationException e) {
+                // Created concurrently
+            }
+        }
+        todoListVersionRepository.incrementAll(missing);
+    }
+
+    /**
+     * Must be called once writes of the given users have committed, after the list cache was invalidated.
+     */
+    public void committed(Collection<String> userNames) {
+        versions.synchronous().invalidateAll(userNames);
+    }
+
+    /**
+     * Must only be called after the change is visible to readers, including the list cache.
+     * The sequence is local to this node and only orders the events it publishes.
+     */
+    public long increment(String userName) {
+        return sequences.computeIfAbsent(userName, key -> new AtomicLong()).incrementAndGet();
+    }
+
+    private static String eTag(long version) {
+        return "\"" + Long.toString(version, 36) + "\"";
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.DevPlayground.service;
+
+import com.example.DevPlayground.entity.TodoStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fields written by a single conditional UPDATE; null fields were left as they were.
+ *
+ * @param clearDueDate true when the due date was removed, in which case dueDate is null
+ */
+public record TodoPatch(TodoStatus status, String title, String description, LocalDateTime dueDate, boolean clearDueDate) {
+
+    public static TodoPatch ofStatus(TodoStatus status) {
+        return new TodoPatch(status, null, null, null, false);
+    }
+
+    public boolean isEmpty() {
+        return status == null && title == null && description == null && dueDate == null && !clearDueDate;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.DevPlayground.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by TodoReminderScheduler when an open todo is about to become due or has become overdue.
+ */
+public record TodoReminderEvent(Kind kind, Long todoId, String userName, String title, LocalDateTime dueDate) {
+
+    public enum Kind {
+        UPCOMING,
+        OVERDUE
+    }
+}
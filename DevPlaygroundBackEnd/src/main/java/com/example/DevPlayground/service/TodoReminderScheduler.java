@@ -0,0 +1,260 @@
+package com.example.DevPlayground.service;
+
+import com.example.DevPlayground.entity.Todo;
+import com.example.DevPlayground.entity.TodoStatus;
+import com.example.DevPlayground.repository.TodoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Publishes TodoReminderEvents for due dates without polling the todos table for due rows.
+ * <p>
+ * Pending due dates are loaded into a {@link TimingWheel} at startup and then kept current from
+ * TodoChangedEvents. Reminders are claimed and published only by the reaper thread that advances the wheel;
+ * reminders that are already due when they are scheduled are handed to it for its next tick. Every open todo with a future due date gets an UPCOMING reminder
+ * {@code todo.reminder.upcoming-lead} before the due date and an OVERDUE reminder at the due date.
+ * <p>
+ * Several nodes may hold the same reminder. Before publishing, a node claims it with a conditional UPDATE
+ * that records the due date it was sent for and only matches while the row is still open and actually due.
+ * As a result, each reminder is published once across all nodes, reminders of todos completed, rescheduled or
+ * deleted on another node are dropped, and a reminder sent before a restart is not sent again. At startup,
+ * todos that became overdue within {@code todo.reminder.overdue-catch-up} (for example while the node was
+ * down) get their OVERDUE reminder.
+ * <p>
+ * Writes through other nodes publish no events here, so those todos are picked up every
+ * {@code todo.reminder.resync-interval} by their updatedAt. Each resync only reads rows written since the
+ * previous successful one (plus one interval of overlap) through idx_todos_updated_at.
+ */
+@Component
+public class TodoReminderScheduler implements SmartInitializingSingleton, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoReminderScheduler.class);
+    private static final List<TodoStatus> OPEN_STATUSES = Arrays.stream(TodoStatus.values()).filter(TodoStatus::isOpen).toList();
+
+    private final TodoRepository todoRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate lookupTransaction;
+    private final TransactionTemplate claimTransaction;
+    private final Duration upcomingLead;
+    private final Duration overdueCatchUp;
+    private final Duration resyncInterval;
+    private final Duration tick;
+    private final long tickMillis;
+    private final TimingWheel<TodoReminderEvent> wheel;
+    private final ConcurrentHashMap<Long, Reminders> scheduled = new ConcurrentHashMap<>();
+    private final Counter firedCounter;
+    private final Counter skippedCounter;
+    private final Thread reaper;
+    private volatile boolean running = true;
+    private volatile LocalDateTime lastSync;
+
+    public TodoReminderScheduler(TodoRepository todoRepository,
+                                 ApplicationEventPublisher eventPublisher,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${todo.reminder.tick:1s}") Duration tick,
+                                 @Value("${todo.reminder.upcoming-lead:15m}") Duration upcomingLead,
+                                 @Value("${todo.reminder.overdue-catch-up:24h}") Duration overdueCatchUp,
+                                 @Value("${todo.reminder.resync-interval:PT1M}") Duration resyncInterval) {
+        this.todoRepository = todoRepository;
+        this.eventPublisher = eventPublisher;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // Events arrive after the writing transaction has completed, so lookups need a transaction of their own
+        this.lookupTransaction = new TransactionTemplate(transactionManager);
+        this.lookupTransaction.setReadOnly(true);
+        this.lookupTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.claimTransaction = new TransactionTemplate(transactionManager);
+        this.claimTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.upcomingLead = upcomingLead;
+        this.overdueCatchUp = overdueCatchUp;
+        this.resyncInterval = resyncInterval;
+        this.tick = tick;
+        this.tickMillis = tick.toMillis();
+        this.wheel = new TimingWheel<>(tickMillis, 64, System.currentTimeMillis());
+        this.firedCounter = Counter.builder("todo.reminders.fired").register(meterRegistry);
+        // Claimed by another node, already sent, or the todo no longer matches
+        this.skippedCounter = Counter.builder("todo.reminders.skipped").register(meterRegistry);
+        Gauge.builder("todo.reminders.pending", wheel, TimingWheel::pending).register(meterRegistry);
+        this.reaper = new Thread(this::runReaper, "todo-reminder-reaper");
+        this.reaper.setDaemon(true);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        LocalDateTime now = LocalDateTime.now();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<TodoRepository.TodoDueView> todos = todoRepository.streamDueAfter(now.minus(overdueCatchUp), OPEN_STATUSES)) {
+                todos.forEach(todo -> schedule(todo.getId(), todo.getUserName(), todo.getTitle(), todo.getDueDate(), true));
+            }
+        });
+        lastSync = now;
+        reaper.start();
+    }
+
+    /**
+     * Schedules open todos written since the last sync, which includes those written through other nodes.
+     * The window overlaps the previous one by a resync interval to allow for clock differences between nodes;
+     * it only grows beyond two intervals while resyncs fail, so that no write is missed.
+     */
+    @Scheduled(initialDelayString = "${todo.reminder.resync-interval:PT1M}",
+            fixedDelayString = "${todo.reminder.resync-interval:PT1M}")
+    public void resync() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = lastSync.minus(resyncInterval);
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<TodoRepository.TodoDueView> todos = todoRepository.streamChangedSince(since, since, OPEN_STATUSES)) {
+                todos.forEach(todo -> schedule(todo.getId(), todo.getUserName(), todo.getTitle(), todo.getDueDate(), true));
+            }
+        });
+        lastSync = now;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        reaper.interrupt();
+        reaper.join(tickMillis * 2);
+    }
+
+    @EventListener
+    public void onTodoChanged(TodoChangedEvent event) {
+        Todo todo = event.todo();
+        if (event.type() != TodoChangedEvent.ChangeType.DELETED && todo == null && event.patch() != null) {
+            onTodoPatched(event.todoId(), event.patch());
+        } else if (event.type() == TodoChangedEvent.ChangeType.DELETED || todo == null
+                || !todo.getStatus().isOpen() || todo.getDueDate() == null) {
+            cancel(event.todoId());
+        } else {
+            schedule(todo.getId(), todo.getUserName(), todo.getTitle(), todo.getDueDate(), false);
+        }
+    }
+
+    /**
+     * A conditional UPDATE only reports the fields it wrote, so the row is read back when the reminders
+     * depend on fields the patch does not carry.
+     */
+    private void onTodoPatched(Long todoId, TodoPatch patch) {
+        if (patch.clearDueDate() || (patch.status() != null && !patch.status().isOpen())) {
+            cancel(todoId);
+            return;
+        }
+        if (patch.title() == null && patch.dueDate() == null
+                && (patch.status() == null || scheduled.containsKey(todoId))) {
+            // Still open and the reminders already carry the current title and due date
+            return;
+        }
+        TodoRepository.TodoDueView todo = lookupTransaction.execute(status -> todoRepository.findDueViewById(todoId).orElse(null));
+        if (todo == null || !todo.getStatus().isOpen() || todo.getDueDate() == null) {
+            cancel(todoId);
+        } else {
+            schedule(todo.getId(), todo.getUserName(), todo.getTitle(), todo.getDueDate(), false);
+        }
+    }
+
+    /**
+     * @param catchUp whether reminders whose time has already passed are still sent (loads from the database);
+     *                the claim keeps them from being sent twice
+     */
+    private void schedule(Long todoId, String userName, String title, LocalDateTime dueDate, boolean catchUp) {
+        long dueMillis = dueDate.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long now = System.currentTimeMillis();
+        if (dueMillis <= now && !catchUp) {
+            cancel(todoId);
+            return;
+        }
+        TimingWheel.Timeout<TodoReminderEvent> upcoming = null;
+        long upcomingMillis = dueMillis - upcomingLead.toMillis();
+        if (dueMillis > now && (upcomingMillis > now || catchUp)) {
+            upcoming = new TimingWheel.Timeout<>(upcomingMillis,
+                    new TodoReminderEvent(TodoReminderEvent.Kind.UPCOMING, todoId, userName, title, dueDate));
+        }
+        TimingWheel.Timeout<TodoReminderEvent> overdue = new TimingWheel.Timeout<>(dueMillis,
+                new TodoReminderEvent(TodoReminderEvent.Kind.OVERDUE, todoId, userName, title, dueDate));
+
+        Reminders previous = scheduled.put(todoId, new Reminders(upcoming, overdue));
+        if (previous != null) {
+            previous.cancel();
+        }
+        // Passed times expire on the reaper's next tick rather than claiming on the calling thread
+        if (upcoming != null) {
+            wheel.scheduleOrExpire(upcoming);
+        }
+        wheel.scheduleOrExpire(overdue);
+    }
+
+    private void cancel(Long todoId) {
+        Reminders previous = scheduled.remove(todoId);
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    private void runReaper() {
+        while (running) {
+            try {
+                wheel.advance(tickMillis, this::fire);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Failed to publish todo reminder", e);
+            }
+        }
+    }
+
+    private void fire(TodoReminderEvent reminder) {
+        if (reminder.kind() == TodoReminderEvent.Kind.OVERDUE) {
+            scheduled.computeIfPresent(reminder.todoId(),
+                    (id, reminders) -> reminders.overdue().payload() == reminder ? null : reminders);
+        }
+        if (!claim(reminder)) {
+            skippedCounter.increment();
+            return;
+        }
+        firedCounter.increment();
+        log.info("Todo {} of {} is {} (due {})", reminder.todoId(), reminder.userName(), reminder.kind(), reminder.dueDate());
+        eventPublisher.publishEvent(reminder);
+    }
+
+    private boolean claim(TodoReminderEvent reminder) {
+        // The wheel may fire up to one tick early
+        LocalDateTime now = LocalDateTime.now().plus(tick);
+        Integer claimed = claimTransaction.execute(status -> reminder.kind() == TodoReminderEvent.Kind.OVERDUE
+                ? todoRepository.claimOverdueReminder(reminder.todoId(), now, OPEN_STATUSES)
+                : todoRepository.claimUpcomingReminder(reminder.todoId(), now, now.plus(upcomingLead), OPEN_STATUSES));
+        return claimed != null && claimed > 0;
+    }
+
+    private record Reminders(TimingWheel.Timeout<TodoReminderEvent> upcoming, TimingWheel.Timeout<TodoReminderEvent> overdue) {
+
+        void cancel() {
+            if (upcoming != null) {
+                upcoming.cancel();
+            }
+            overdue.cancel();
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.example.DevPlayground.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over todo titles and descriptions with one set of posting lists per user.
+ * <p>
+ * Latin text is split into lower-cased words. Japanese and Chinese text has no word boundaries, so runs
+ * of kanji/kana are indexed as single characters and bigrams; a query matches when all of its tokens do.
+ * Posting lists are sorted id arrays, and results are returned newest (highest id) first.
+ */
+public class TodoSearchIndex {
+
+    private final ConcurrentHashMap<String, UserIndex> users = new ConcurrentHashMap<>();
+    private final AtomicLong documentCount = new AtomicLong();
+
+    public void index(String userName, long todoId, String title, String description) {
+        UserIndex index = users.computeIfAbsent(userName, key -> new UserIndex());
+        if (index.put(todoId, tokenize(title, false), tokenize(description, false))) {
+            documentCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Re-indexes the given side(s) of a todo; a null title or description keeps what is already indexed.
+     */
+    public void update(String userName, long todoId, String title, String description) {
+        UserIndex index = users.computeIfAbsent(userName, key -> new UserIndex());
+        if (index.put(todoId, title == null ? null : tokenize(title, false),
+                description == null ? null : tokenize(description, false))) {
+            documentCount.incrementAndGet();
+        }
+    }
+
+    public void remove(String userName, long todoId) {
+        UserIndex index = users.get(userName);
+        if (index != null && index.remove(todoId)) {
+            documentCount.decrementAndGet();
+        }
+    }
+
+    public List<Long> search(String userName, String query, int limit) {
+        UserIndex index = users.get(userName);
+        String[] tokens = tokenize(query, true);
+        if (index == null || tokens.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        return index.search(tokens, limit);
+    }
+
+    public long size() {
+        return documentCount.get();
+    }
+
+    public void clear() {
+        users.clear();
+        documentCount.set(0);
+    }
+
+    static String[] tokenize(String text, boolean query) {
+        if (text == null || text.isEmpty()) {
+            return new String[0];
+        }
+        Set<String> tokens = new LinkedHashSet<>();
+        StringBuilder word = new StringBuilder();
+        int cjkStart = -1;
+        int length = text.length();
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? text.charAt(i) : ' ';
+            boolean cjk = i < length && isCjk(c);
+            if (cjk) {
+                if (cjkStart < 0) {
+                    cjkStart = i;
+                }
+            } else if (cjkStart >= 0) {
+                addCjkRun(tokens, text, cjkStart, i, query);
+                cjkStart = -1;
+            }
+            if (!cjk && Character.isLetterOrDigit(c)) {
+                word.append(Character.toLowerCase(c));
+            } else if (!word.isEmpty()) {
+                tokens.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    private static void addCjkRun(Set<String> tokens, String text, int start, int end, boolean query) {
+        // Documents index unigrams and bigrams; queries use bigrams unless they are a single character
+        if (end - start == 1 || !query) {
+            for (int i = start; i < end; i++) {
+                tokens.add(text.substring(i, i + 1));
+            }
+        }
+        for (int i = start; i + 1 < end; i++) {
+            tokens.add(text.substring(i, i + 2));
+        }
+    }
+
+    private static boolean isCjk(char c) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(c);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA;
+    }
+
+    private record Document(String[] titleTokens, String[] descriptionTokens) {
+
+        Set<String> tokens() {
+            Set<String> tokens = new LinkedHashSet<>(Arrays.asList(titleTokens));
+            tokens.addAll(Arrays.asList(descriptionTokens));
+            return tokens;
+        }
+    }
+
+    private static class UserIndex {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<String, PostingList> postings = new HashMap<>();
+        private final Map<Long, Document> documents = new HashMap<>();
+
+        /**
+         * Null token arrays keep the previous document's tokens for that side.
+         *
+         * @return true if the todo was not indexed before
+         */
+        boolean put(long todoId, String[] titleTokens, String[] descriptionTokens) {
+            lock.writeLock().lock();
+            try {
+                Document previous = documents.get(todoId);
+                Document document = new Document(
+                        titleTokens != null ? titleTokens : previous != null ? previous.titleTokens() : new String[0],
+                        descriptionTokens != null ? descriptionTokens : previous != null ? previous.descriptionTokens() : new String[0]);
+                documents.put(todoId, document);
+                if (previous != null) {
+                    removePostings(todoId, previous);
+                }
+                for (String token : document.tokens()) {
+                    postings.computeIfAbsent(token, key -> new PostingList()).add(todoId);
+                }
+                return previous == null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        boolean remove(long todoId) {
+            lock.writeLock().lock();
+            try {
+                Document previous = documents.remove(todoId);
+                if (previous == null) {
+                    return false;
+                }
+                removePostings(todoId, previous);
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        List<Long> search(String[] tokens, int limit) {
+            lock.readLock().lock();
+            try {
+                List<PostingList> lists = new ArrayList<>(tokens.length);
+                for (String token : tokens) {
+                    PostingList list = postings.get(token);
+                    if (list == null) {
+                        return List.of();
+                    }
+                    lists.add(list);
+                }
+                // Walk the shortest list and probe the others
+                lists.sort(Comparator.comparingInt(PostingList::size));
+                PostingList shortest = lists.get(0);
+                List<Long> result = new ArrayList<>(Math.min(limit, shortest.size()));
+                for (int i = shortest.size() - 1; i >= 0 && result.size() < limit; i--) {
+                    long id = shortest.get(i);
+                    boolean all = true;
+                    for (int j = 1; j < lists.size() && all; j++) {
+                        all = lists.get(j).contains(id);
+                    }
+                    if (all) {
+                        result.add(id);
+                    }
+                }
+                return result;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private void removePostings(long todoId, Document document) {
+            for (String token : document.tokens()) {
+                PostingList list = postings.get(token);
+                if (list != null && list.remove(todoId) && list.size() == 0) {
+                    postings.remove(token);
+                }
+            }
+        }
+    }
+
+    private static class PostingList {
+        private long[] ids = new long[2];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        long get(int index) {
+            return ids[index];
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        void add(long id) {
+            // Ids come from a sequence, so new todos almost always append
+            if (size == 0 || id > ids[size - 1]) {
+                grow();
+                ids[size++] = id;
+                return;
+            }
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            int insertAt = -position - 1;
+            grow();
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        private void grow() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+        }
+    }
+}
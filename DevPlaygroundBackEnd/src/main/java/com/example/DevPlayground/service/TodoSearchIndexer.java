@@ -0,0 +1,100 @@
+package com.example.DevPlayground.service;
+
+import com.example.DevPlayground.repository.TodoRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Keeps {@link TodoSearchIndex} in sync with the todos table.
+ * The index is rebuilt once at startup, before the web server accepts requests, and then follows
+ * TodoChangedEvents.
+ * <p>
+ * The index is local to each node, and writes through other nodes publish no events here. Like the reminder
+ * resync, todos written since the last resync are therefore re-indexed every {@code todo.search.resync-interval}
+ * by their updatedAt. Deletes leave no row to find, so ids that search returns but the table no longer has are
+ * removed by {@link #forget} when TodoService notices them.
+ */
+@Component
+public class TodoSearchIndexer implements SmartInitializingSingleton {
+
+    private final TodoSearchIndex index = new TodoSearchIndex();
+    private final TodoRepository todoRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Duration resyncInterval;
+    private volatile LocalDateTime lastSync;
+
+    public TodoSearchIndexer(TodoRepository todoRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${todo.search.resync-interval:PT1M}") Duration resyncInterval) {
+        this.todoRepository = todoRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.resyncInterval = resyncInterval;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        index.clear();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<TodoRepository.TodoTextView> todos = todoRepository.streamAllTexts()) {
+                todos.forEach(todo -> index.index(todo.getUserName(), todo.getId(), todo.getTitle(), todo.getDescription()));
+            }
+        });
+        lastSync = now;
+    }
+
+    /**
+     * Re-indexes todos written since the last sync, which includes those written through other nodes.
+     * The window overlaps the previous one by a resync interval to allow for clock differences between nodes.
+     */
+    @Scheduled(initialDelayString = "${todo.search.resync-interval:PT1M}",
+            fixedDelayString = "${todo.search.resync-interval:PT1M}")
+    public void resync() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = lastSync.minus(resyncInterval);
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<TodoRepository.TodoTextView> todos = todoRepository.streamTextsChangedSince(since)) {
+                todos.forEach(todo -> index.index(todo.getUserName(), todo.getId(), todo.getTitle(), todo.getDescription()));
+            }
+        });
+        lastSync = now;
+    }
+
+    public List<Long> search(String userName, String query, int limit) {
+        return index.search(userName, query, limit);
+    }
+
+    /**
+     * Removes todos that search returned but that no longer exist.
+     */
+    public void forget(String userName, Collection<Long> todoIds) {
+        todoIds.forEach(todoId -> index.remove(userName, todoId));
+    }
+
+    @EventListener
+    public void onTodoChanged(TodoChangedEvent event) {
+        if (event.type() == TodoChangedEvent.ChangeType.DELETED) {
+            index.remove(event.userName(), event.todoId());
+        } else if (event.todo() != null) {
+            index.index(event.userName(), event.todoId(), event.todo().getTitle(), event.todo().getDescription());
+        } else if (event.patch() != null && (event.patch().title() != null || event.patch().description() != null)) {
+            index.update(event.userName(), event.todoId(), event.patch().title(), event.patch().description());
+        }
+    }
+}
@@ -1,58 +1,460 @@
 package com.example.DevPlayground.service;
 
+import com.example.DevPlayground.dto.TodoPageResponse;
+import com.example.DevPlayground.dto.TodoStats;
+import com.example.DevPlayground.dto.TodoSummary;
 import com.example.DevPlayground.entity.Todo;
+import com.example.DevPlayground.entity.TodoStatus;
 import com.example.DevPlayground.repository.TodoRepository;
+import com.example.DevPlayground.service.TodoChangedEvent.ChangeType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class TodoService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+    public static final int MAX_BULK_OPERATIONS = 1000;
+    public static final int DEFAULT_SEARCH_LIMIT = 20;
+    public static final int MAX_SEARCH_LIMIT = 100;
+
     private final TodoRepository todoRepository;
+    private final TodoListCache todoListCache;
+    private final TodoStatusCounters todoStatusCounters;
+    private final TodoListVersions todoListVersions;
+    private final TodoSearchIndexer todoSearchIndexer;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Autowired
-    public TodoService(TodoRepository todoRepository) {
+    public TodoService(TodoRepository todoRepository,
+                       TodoListCache todoListCache,
+                       TodoStatusCounters todoStatusCounters,
+                       TodoListVersions todoListVersions,
+                       TodoSearchIndexer todoSearchIndexer,
+                       ApplicationEventPublisher eventPublisher) {
         this.todoRepository = todoRepository;
+        this.todoListCache = todoListCache;
+        this.todoStatusCounters = todoStatusCounters;
+        this.todoListVersions = todoListVersions;
+        this.todoSearchIndexer = todoSearchIndexer;
+        this.eventPublisher = eventPublisher;
     }
 
-    public Todo createTodo(String userName, String title, String description, String status, String dueDate) {
-        LocalDateTime dueDateParsed = null;
-        
-        if (dueDate != null && !dueDate.trim().isEmpty()) {
-            try {
-                dueDateParsed = LocalDateTime.parse(dueDate, DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm"));
-            } catch (DateTimeParseException e) {
-                try {
-                    // Fallback to ISO format
-                    dueDateParsed = LocalDateTime.parse(dueDate);
-                } catch (DateTimeParseException ex) {
-                    dueDateParsed = null;
-                }
+    @Transactional
+    public Todo createTodo(String userName, String title, String description, TodoStatus status, String dueDate) {
+        TodoChangeSet changes = trackChanges();
+        Todo saved = todoRepository.save(newTodo(userName, title, description, status, dueDate));
+        changes.created(saved);
+        return saved;
+    }
+
+    /**
+     * Builds an unsaved todo, parsing dueDate the same way as createTodo.
+     */
+    public Todo newTodo(String userName, String title, String description, TodoStatus status, String dueDate) {
+        return new Todo(userName, title, description, status, parseDueDate(dueDate));
+    }
+
+    /**
+     * Applies creates, status updates and deletes in one transaction.
+     * Inserts and updates are sent as JDBC batches and deletes as a single statement.
+     */
+    @Transactional
+    public BulkResult applyBulk(List<Todo> toCreate, Map<Long, TodoStatus> statusUpdates, Collection<Long> toDelete) {
+        int operations = toCreate.size() + statusUpdates.size() + toDelete.size();
+        if (operations > MAX_BULK_OPERATIONS) {
+            throw new IllegalArgumentException("Too many bulk operations: " + operations + " (max " + MAX_BULK_OPERATIONS + ")");
+        }
+
+        TodoChangeSet changes = trackChanges();
+        List<Todo> created = todoRepository.saveAll(toCreate);
+        created.forEach(changes::created);
+
+        List<Todo> updated = new ArrayList<>(statusUpdates.size());
+        if (!statusUpdates.isEmpty()) {
+            for (Todo todo : todoRepository.findAllById(statusUpdates.keySet())) {
+                // Dirty entities are flushed as one update batch on commit
+                TodoStatus previous = todo.getStatus();
+                todo.setStatus(statusUpdates.get(todo.getId()));
+                updated.add(todo);
+                changes.statusChanged(todo, previous);
+            }
+            if (updated.size() != statusUpdates.size()) {
+                throw new RuntimeException("Todo not found with ids: " + missingIds(statusUpdates.keySet(), updated));
             }
         }
 
-        Todo todo = new Todo(userName, title, description, status, dueDateParsed);
-        return todoRepository.save(todo);
+        int deleted = 0;
+        if (!toDelete.isEmpty()) {
+            todoRepository.findStatusViewsByIdIn(toDelete)
+                    .forEach(view -> changes.deleted(view.getUserName(), view.getId(), view.getStatus()));
+            // Unknown ids are not an error, but only rows that actually existed are reported as deleted
+            deleted = todoRepository.deleteByIdIn(toDelete);
+        }
+
+        return new BulkResult(created, updated, deleted);
+    }
+
+    /**
+     * ETag for the user's todo list, the list version every write increments (see {@link TodoListVersions}).
+     * It must be read before the list itself, so that a change committed in between leaves the client with an
+     * older tag rather than a newer one.
+     */
+    public String getTodoListETag(String userName) {
+        return todoListVersions.eTag(userName);
+    }
+
+    /**
+     * Served from {@link TodoListCache} while the cached list still matches eTag, the value just returned by
+     * {@link #getTodoListETag}; the returned list is shared between callers and must not be modified.
+     */
+    public List<Todo> getTodosByUserName(String userName, String eTag) {
+        return todoListCache.get(userName, eTag, todoRepository::findByUserNameOrderByDueDate);
+    }
+
+    public TodoStats getTodoStatsByUserName(String userName) {
+        return todoStatusCounters.get(userName);
+    }
+
+    public List<TodoSummary> getTodoSummariesByUserName(String userName) {
+        return todoRepository.findSummariesByUserName(userName);
+    }
+
+    /**
+     * Searches the user's titles and descriptions in memory; only the matching rows are read from the database.
+     */
+    public List<TodoSummary> searchTodos(String userName, String query, Integer limit) {
+        int maxResults = limit == null ? DEFAULT_SEARCH_LIMIT : Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+        List<Long> ids = todoSearchIndexer.search(userName, query, maxResults);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        // Keep the index order (newest first); ids deleted since the lookup, including through other nodes,
+        // drop out here and are removed from this node's index
+        Map<Long, TodoSummary> byId = todoRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(TodoSummary::id, summary -> summary));
+        if (byId.size() < ids.size()) {
+            todoSearchIndexer.forget(userName, ids.stream().filter(id -> !byId.containsKey(id)).toList());
+        }
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    public Optional<Todo> getTodoById(Long todoId) {
+        return todoRepository.findById(todoId);
     }
 
-    public List<Todo> getTodosByUserName(String userName) {
-        return todoRepository.findByUserNameOrderByDueDate(userName);
+    /**
+     * Returns one page of a user's todos ordered by (dueDate, id).
+     * The cursor is the opaque nextCursor of the previous page; null or blank starts from the beginning.
+     */
+    public TodoPageResponse getTodoPageByUserName(String userName, String cursor, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // Fetch one extra row to find out whether another page follows
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<Todo> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = todoRepository.findPageByUserName(userName, limit);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            rows = after.dueDate() == null
+                    ? todoRepository.findPageByUserNameAfterNullDueDate(userName, after.id(), limit)
+                    : todoRepository.findPageByUserNameAfter(userName, after.dueDate(), after.id(), limit);
+        }
+
+        if (rows.size() <= pageSize) {
+            return new TodoPageResponse(rows, null);
+        }
+        List<Todo> items = rows.subList(0, pageSize);
+        Todo last = items.get(pageSize - 1);
+        return new TodoPageResponse(items, new PageCursor(last.getDueDate(), last.getId()).encode());
     }
 
+    /**
+     * Passes every todo of the user to the consumer while the JDBC cursor advances.
+     * Each row is detached after use so the persistence context does not grow with the result.
+     */
+    @Transactional(readOnly = true)
+    public void streamTodosByUserName(String userName, Consumer<Todo> consumer) {
+        try (Stream<Todo> todos = todoRepository.streamByUserName(userName)) {
+            todos.forEach(todo -> {
+                consumer.accept(todo);
+                entityManager.detach(todo);
+            });
+        }
+    }
+
+    @Transactional
     public void deleteTodoById(Long todoId) {
-        todoRepository.deleteById(todoId);
+        TodoChangeSet changes = trackChanges();
+        todoRepository.findById(todoId).ifPresent(todo -> {
+            todoRepository.delete(todo);
+            changes.deleted(todo.getUserName(), todo.getId(), todo.getStatus());
+        });
     }
 
-    public Todo updateTodoStatus(Long todoId, String status) {
+    /**
+     * Unconditional status change that returns the whole todo. The status is written by one UPDATE, so a
+     * concurrent change is never overwritten with a stale read; the row is only read afterwards for the response.
+     */
+    @Transactional
+    public Todo updateTodoStatus(Long todoId, TodoStatus status) {
+        TodoChangeSet changes = trackChanges();
+        Query query = updateQuery(TodoPatch.ofStatus(status), "t.id = :id").setParameter("id", todoId);
+        if (query.executeUpdate() == 0) {
+            throw new RuntimeException("Todo not found with id: " + todoId);
+        }
         Todo todo = todoRepository.findById(todoId)
                 .orElseThrow(() -> new RuntimeException("Todo not found with id: " + todoId));
-        
-        todo.setStatus(status);
-        return todoRepository.save(todo);
+        changes.statusChanged(todo, null);
+        return todo;
+    }
+
+    /**
+     * Sets the status with one UPDATE that only matches while the todo still has the given version.
+     *
+     * @return the new version, or empty if the user has no todo with this id
+     * @throws ObjectOptimisticLockingFailureException if the todo has been changed since version was read
+     */
+    @Transactional
+    public Optional<Long> updateTodoStatus(String userName, Long todoId, long version, TodoStatus status) {
+        return updateIfVersion(userName, todoId, version, TodoPatch.ofStatus(status));
+    }
+
+    /**
+     * Changes title, description and due date like {@link #updateTodoStatus(String, Long, long, TodoStatus)}.
+     * Null arguments leave the field unchanged; a blank dueDate removes the due date.
+     */
+    @Transactional
+    public Optional<Long> patchTodo(String userName, Long todoId, long version, String title, String description, String dueDate) {
+        if (title != null && title.trim().isEmpty()) {
+            throw new IllegalArgumentException("Title cannot be empty");
+        }
+        if (description != null && description.trim().isEmpty()) {
+            throw new IllegalArgumentException("Description cannot be empty");
+        }
+        boolean clearDueDate = dueDate != null && dueDate.trim().isEmpty();
+        LocalDateTime parsedDueDate = clearDueDate ? null : parseDueDate(dueDate);
+        if (dueDate != null && !clearDueDate && parsedDueDate == null) {
+            throw new IllegalArgumentException("Invalid dueDate: " + dueDate);
+        }
+        TodoPatch patch = new TodoPatch(null, title, description, parsedDueDate, clearDueDate);
+        if (patch.isEmpty()) {
+            throw new IllegalArgumentException("Nothing to update");
+        }
+        return updateIfVersion(userName, todoId, version, patch);
+    }
+
+    /**
+     * One UPDATE and nothing else when it matches. The status being replaced is not read, so a status change
+     * makes the user's counters reload instead of applying a delta.
+     */
+    private Optional<Long> updateIfVersion(String userName, Long todoId, long version, TodoPatch patch) {
+        TodoChangeSet changes = trackChanges();
+        Query query = updateQuery(patch, "t.id = :id AND t.userName = :userName AND t.version = :version")
+                .setParameter("id", todoId)
+                .setParameter("userName", userName)
+                .setParameter("version", version);
+        if (query.executeUpdate() == 0) {
+            // Only a failed update pays for the second query that tells a missing todo from a stale version
+            if (!todoRepository.existsByIdAndUserName(todoId, userName)) {
+                return Optional.empty();
+            }
+            throw new ObjectOptimisticLockingFailureException(Todo.class, todoId);
+        }
+        changes.patched(userName, todoId, patch, version + 1);
+        return Optional.of(version + 1);
+    }
+
+    private Query updateQuery(TodoPatch patch, String condition) {
+        // Bulk UPDATEs skip @PreUpdate and version checks, so both are written out here
+        StringBuilder jpql = new StringBuilder("UPDATE Todo t SET t.version = t.version + 1, t.updatedAt = :updatedAt");
+        if (patch.status() != null) {
+            jpql.append(", t.status = :status");
+        }
+        if (patch.title() != null) {
+            jpql.append(", t.title = :title");
+        }
+        if (patch.description() != null) {
+            jpql.append(", t.description = :description");
+        }
+        if (patch.clearDueDate()) {
+            jpql.append(", t.dueDate = NULL");
+        } else if (patch.dueDate() != null) {
+            jpql.append(", t.dueDate = :dueDate");
+        }
+        jpql.append(" WHERE ").append(condition);
+
+        Query query = entityManager.createQuery(jpql.toString())
+                .setParameter("updatedAt", LocalDateTime.now());
+        if (patch.status() != null) {
+            query.setParameter("status", patch.status());
+        }
+        if (patch.title() != null) {
+            query.setParameter("title", patch.title());
+        }
+        if (patch.description() != null) {
+            query.setParameter("description", patch.description());
+        }
+        if (!patch.clearDueDate() && patch.dueDate() != null) {
+            query.setParameter("dueDate", patch.dueDate());
+        }
+        return query;
+    }
+
+    private LocalDateTime parseDueDate(String dueDate) {
+        if (dueDate == null || dueDate.trim().isEmpty()) {
+            return null;
+        }
+        return DueDateParser.parse(dueDate);
+    }
+
+    /**
+     * Starts recording the changes of the current write transaction. The list versions of the affected users
+     * are incremented just before it commits. Once it has committed, the list cache and the status counters
+     * are brought up to date and a TodoChangedEvent is published per change; nothing is applied if it rolls back.
+     */
+    private TodoChangeSet trackChanges() {
+        TodoChangeSet changes = new TodoChangeSet(todoStatusCounters);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                // Last statement of the transaction, so the version rows are locked as briefly as possible
+                todoListVersions.incrementInTransaction(changes.userNames());
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                Set<String> userNames = changes.userNames();
+                if (status != STATUS_COMMITTED) {
+                    todoStatusCounters.endWrite(userNames, List.of());
+                    return;
+                }
+                todoListCache.invalidateAll(userNames);
+                todoListVersions.committed(userNames);
+                todoStatusCounters.endWrite(userNames, changes.statusChanges());
+                // Event sequences move only after the cache is invalidated
+                Map<String, Long> versions = new HashMap<>();
+                userNames.forEach(userName -> versions.put(userName, todoListVersions.increment(userName)));
+                for (TodoChange change : changes.changes) {
+                    Long version = change.todo() != null ? change.todo().getVersion() : change.version();
+                    eventPublisher.publishEvent(new TodoChangedEvent(change.type(), change.userName(), change.todoId(),
+                            change.todo(), change.patch(), version, versions.get(change.userName())));
+                }
+            }
+        });
+        return changes;
+    }
+
+    private static List<Long> missingIds(Collection<Long> requested, List<Todo> found) {
+        Set<Long> foundIds = found.stream().map(Todo::getId).collect(Collectors.toSet());
+        return requested.stream().filter(id -> !foundIds.contains(id)).toList();
+    }
+
+    private static class TodoChangeSet {
+        private final TodoStatusCounters todoStatusCounters;
+        private final List<TodoChange> changes = new ArrayList<>();
+        private final Set<String> userNames = new HashSet<>();
+
+        TodoChangeSet(TodoStatusCounters todoStatusCounters) {
+            this.todoStatusCounters = todoStatusCounters;
+        }
+
+        /**
+         * Changes are recorded before the transaction commits, so each user's counters learn about the write
+         * before it becomes visible to their loads.
+         */
+        private void add(TodoChange change) {
+            if (userNames.add(change.userName())) {
+                todoStatusCounters.beginWrite(change.userName());
+            }
+            changes.add(change);
+        }
+
+        void created(Todo todo) {
+            add(new TodoChange(ChangeType.CREATED, todo.getUserName(), todo.getId(), todo, null, todo.getStatus(), null, null));
+        }
+
+        /**
+         * @param previous the status before the change, or null if it was not read
+         */
+        void statusChanged(Todo todo, TodoStatus previous) {
+            add(new TodoChange(ChangeType.UPDATED, todo.getUserName(), todo.getId(), todo, previous, todo.getStatus(), null, null));
+        }
+
+        void patched(String userName, Long todoId, TodoPatch patch, long version) {
+            add(new TodoChange(ChangeType.UPDATED, userName, todoId, null, null, patch.status(), patch, version));
+        }
+
+        void deleted(String userName, Long todoId, TodoStatus status) {
+            add(new TodoChange(ChangeType.DELETED, userName, todoId, null, status, null, null, null));
+        }
+
+        Set<String> userNames() {
+            return userNames;
+        }
+
+        List<TodoStatusCounters.StatusChange> statusChanges() {
+            return changes.stream()
+                    .filter(change -> change.from() != null || change.to() != null)
+                    .map(change -> new TodoStatusCounters.StatusChange(change.userName(), change.from(), change.to(),
+                            change.type() == ChangeType.UPDATED && change.from() == null))
+                    .toList();
+        }
+    }
+
+    private record TodoChange(ChangeType type, String userName, Long todoId, Todo todo, TodoStatus from, TodoStatus to,
+                              TodoPatch patch, Long version) {}
+
+    public record BulkResult(List<Todo> created, List<Todo> updated, int deleted) {}
+
+    private record PageCursor(LocalDateTime dueDate, Long id) {
+
+        String encode() {
+            String raw = (dueDate == null ? "" : dueDate.toString()) + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static PageCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('|');
+                String dueDate = raw.substring(0, separator);
+                Long id = Long.valueOf(raw.substring(separator + 1));
+                return new PageCursor(dueDate.isEmpty() ? null : LocalDateTime.parse(dueDate), id);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+            }
+        }
     }
-}
\ No newline at end of file
+}
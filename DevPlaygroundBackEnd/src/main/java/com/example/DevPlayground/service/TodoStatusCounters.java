@@ -0,0 +1,184 @@
+package com.example.DevPlayground.service;
+
+import com.example.DevPlayground.dto.TodoStats;
+import com.example.DevPlayground.entity.TodoStatus;
+import com.example.DevPlayground.repository.TodoRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-user todo counts by status, loaded with one GROUP BY and adjusted by the deltas of TodoService writes.
+ * <p>
+ * Entries are bounded in number and dropped ttl after they were created, so counts changed through other
+ * nodes show up on the next load; within that window this node's own writes are applied as deltas rather
+ * than reloading. Writers bracket each transaction with {@link #beginWrite(String)} per affected user and
+ * {@link #endWrite(Collection, List)}; a load that overlaps a write of the same user is returned but not kept,
+ * so a delta can never be lost or counted twice. Writes of other users do not affect the load. An entry is
+ * pinned while a write of its user is in flight, so that the delta reaches the entry the write began on.
+ */
+@Component
+public class TodoStatusCounters {
+
+    private static final TodoStatus[] STATUSES = TodoStatus.values();
+
+    private final TodoRepository todoRepository;
+    private final Cache<String, UserCounters> counters;
+    // Entries with writes in flight, whether or not the cache still holds them
+    private final ConcurrentHashMap<String, UserCounters> writing = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TodoStatusCounters(TodoRepository todoRepository,
+                              @Value("${todo.stats.maximum-size:10000}") long maximumSize,
+                              @Value("${todo.stats.ttl:10s}") Duration ttl) {
+        this(todoRepository, maximumSize, ttl, Ticker.systemTicker());
+    }
+
+    TodoStatusCounters(TodoRepository todoRepository, long maximumSize, Duration ttl, Ticker ticker) {
+        this.todoRepository = todoRepository;
+        this.counters = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                .build();
+    }
+
+    public TodoStats get(String userName) {
+        UserCounters user = user(userName);
+        AtomicLongArray counts = user.counts;
+        if (counts == null) {
+            long sequence = user.quietSequence();
+            counts = load(userName);
+            if (sequence >= 0) {
+                counts = user.publish(counts, sequence);
+            }
+        }
+        return toStats(userName, counts);
+    }
+
+    /**
+     * Must be called for every user a write touches, before the write commits.
+     */
+    public void beginWrite(String userName) {
+        writing.compute(userName, (key, pinned) -> {
+            UserCounters user = pinned != null ? pinned : counters.get(key, ignored -> new UserCounters());
+            user.beginWrite();
+            return user;
+        });
+    }
+
+    /**
+     * Must be called once the write has committed or rolled back, with the users passed to
+     * {@link #beginWrite(String)}; pass no changes on rollback.
+     */
+    public void endWrite(Collection<String> userNames, List<StatusChange> changes) {
+        for (String userName : userNames) {
+            List<StatusChange> userChanges = changes.stream().filter(change -> change.userName().equals(userName)).toList();
+            writing.computeIfPresent(userName, (key, user) -> user.endWrite(userChanges) ? null : user);
+        }
+    }
+
+    private UserCounters user(String userName) {
+        UserCounters pinned = writing.get(userName);
+        return pinned != null ? pinned : counters.get(userName, key -> new UserCounters());
+    }
+
+    private AtomicLongArray load(String userName) {
+        AtomicLongArray counts = new AtomicLongArray(STATUSES.length);
+        for (TodoRepository.StatusCount row : todoRepository.countByStatusForUser(userName)) {
+            counts.set(row.getStatus().ordinal(), row.getCount());
+        }
+        return counts;
+    }
+
+    private static TodoStats toStats(String userName, AtomicLongArray counts) {
+        Map<TodoStatus, Long> byStatus = new EnumMap<>(TodoStatus.class);
+        long open = 0;
+        long done = 0;
+        for (TodoStatus status : STATUSES) {
+            long count = counts.get(status.ordinal());
+            byStatus.put(status, count);
+            if (status.isOpen()) {
+                open += count;
+            } else {
+                done += count;
+            }
+        }
+        return new TodoStats(userName, open + done, open, done, byStatus);
+    }
+
+    /**
+     * One user's counters and write bookkeeping. Reads of counts are lock-free; everything else locks the entry.
+     */
+    private static final class UserCounters {
+        private volatile AtomicLongArray counts;
+        private int writesInFlight;
+        private long writeSequence;
+
+        /**
+         * @return the current write sequence, or -1 while a write of this user is in flight
+         */
+        synchronized long quietSequence() {
+            return writesInFlight == 0 ? writeSequence : -1;
+        }
+
+        /**
+         * Keeps loaded counts unless a write of this user started since {@code sequence} was read.
+         */
+        synchronized AtomicLongArray publish(AtomicLongArray loaded, long sequence) {
+            if (counts == null && writesInFlight == 0 && writeSequence == sequence) {
+                counts = loaded;
+            }
+            return counts != null ? counts : loaded;
+        }
+
+        synchronized void beginWrite() {
+            writesInFlight++;
+            writeSequence++;
+        }
+
+        /**
+         * @return whether no write of this user is left in flight
+         */
+        synchronized boolean endWrite(List<StatusChange> changes) {
+            if (changes.stream().anyMatch(StatusChange::previousUnknown)) {
+                // Reloaded by the next get; the sequence increment below discards loads that overlapped the write
+                counts = null;
+            } else if (counts != null) {
+                for (StatusChange change : changes) {
+                    if (change.from() != null) {
+                        counts.decrementAndGet(change.from().ordinal());
+                    }
+                    if (change.to() != null) {
+                        counts.incrementAndGet(change.to().ordinal());
+                    }
+                }
+            }
+            writeSequence++;
+            writesInFlight--;
+            return writesInFlight == 0;
+        }
+    }
+
+    /**
+     * A todo moving between statuses; from is null for a created todo and to is null for a deleted one.
+     * previousUnknown marks an update that did not read the status it replaced; the user's counts are reloaded.
+     */
+    public record StatusChange(String userName, TodoStatus from, TodoStatus to, boolean previousUnknown) {
+
+        public StatusChange(String userName, TodoStatus from, TodoStatus to) {
+            this(userName, from, to, false);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.DevPlayground.service;
+
+import com.example.DevPlayground.entity.Users;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of the data {@link UserService#loadUserByUsername} needs, keyed by username.
+ * <p>
+ * Entries are immutable snapshots and every lookup builds a fresh {@link User}, because the authentication
+ * manager erases the password of the UserDetails it was given. Unknown usernames are cached too, so that
+ * repeated failed logins do not reach the database; Caffeine's frequency-based admission keeps a flood of
+ * random names from evicting users who actually log in.
+ * <p>
+ * Writes on this node evict what they touch, but writes through other nodes are only seen once an entry
+ * expires. Known users are therefore kept for {@code user.cache.ttl} and unknown usernames only for the
+ * seconds-scale {@code user.cache.negative-ttl}, which bounds how long another node's deletes, disables and
+ * password changes (or a new user's first logins) can be missed.
+ */
+@Component
+public class UserDetailsCache {
+
+    private final AsyncCache<String, Optional<UserSnapshot>> cache;
+
+    @Autowired
+    public UserDetailsCache(@Value("${user.cache.maximum-size:10000}") long maximumSize,
+                            @Value("${user.cache.ttl:30s}") Duration ttl,
+                            @Value("${user.cache.negative-ttl:5s}") Duration negativeTtl,
+                            MeterRegistry meterRegistry) {
+        this(maximumSize, ttl, negativeTtl, meterRegistry, Ticker.systemTicker());
+    }
+
+    UserDetailsCache(long maximumSize, Duration ttl, Duration negativeTtl, MeterRegistry meterRegistry, Ticker ticker) {
+        long ttlNanos = ttl.toNanos();
+        long negativeTtlNanos = negativeTtl.toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, Optional<UserSnapshot>>() {
+                    @Override
+                    public long expireAfterCreate(String username, Optional<UserSnapshot> user, long currentTime) {
+                        return user.isPresent() ? ttlNanos : negativeTtlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String username, Optional<UserSnapshot> user, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(username, user, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String username, Optional<UserSnapshot> user, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .ticker(ticker)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "user.details");
+    }
+
+    public Optional<UserDetails> get(String username, Function<String, Optional<Users>> loader) {
+        return CacheLoads.getOrLoad(cache, username, key -> loader.apply(key).map(UserSnapshot::of))
+                .map(UserSnapshot::toUserDetails);
+    }
+
+    /**
+     * Evicts the given usernames, once the current transaction has committed if there is one.
+     */
+    public void evict(List<String> usernames) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.synchronous().invalidateAll(usernames);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.synchronous().invalidateAll(usernames);
+            }
+        });
+    }
+
+    private record UserSnapshot(String username, String password, boolean enabled, List<GrantedAuthority> authorities) {
+
+        static UserSnapshot of(Users user) {
+            List<GrantedAuthority> authorities = user.getAuthorities().stream()
+                    .<GrantedAuthority>map(authority -> new SimpleGrantedAuthority(authority.getAuthority()))
+                    .toList();
+            return new UserSnapshot(user.getUsername(), user.getPassword(), user.isEnabled(), authorities);
+        }
+
+        UserDetails toUserDetails() {
+            return new User(username, password, enabled, true, true, true, authorities);
+        }
+    }
+}
@@ -4,28 +4,57 @@ import com.example.DevPlayground.entity.Role;
 import com.example.DevPlayground.entity.Users;
 import com.example.DevPlayground.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PasskeyService passkeyService;
+    private final UserDetailsCache userDetailsCache;
 
     @Autowired
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository,
+                       PasswordEncoder passwordEncoder,
+                       PasskeyService passkeyService,
+                       UserDetailsCache userDetailsCache) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.passkeyService = passkeyService;
+        this.userDetailsCache = userDetailsCache;
     }
 
+    /**
+     * Served from {@link UserDetailsCache}; every write below evicts the users it touches.
+     */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return userRepository.findByUsername(username).orElseThrow(() -> new UsernameNotFoundException(username + " not found"));
+        return userDetailsCache.get(username, userRepository::findByUsername)
+                .orElseThrow(() -> new UsernameNotFoundException(username + " not found"));
+    }
+
+    /**
+     * Called by the authentication provider after a successful login whose stored hash needs upgrading;
+     * {@code newPassword} is already encoded with the current settings.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.findByUsername(user.getUsername()).ifPresent(stored -> {
+            stored.setPassword(newPassword);
+            userDetailsCache.evict(List.of(stored.getUsername()));
+        });
+        return User.withUserDetails(user).password(newPassword).build();
     }
 
     public List<Users> getAllUsers() {
@@ -33,7 +62,15 @@ public class UserService implements UserDetailsService {
     }
 
     public Users save(Users user) {
-        return userRepository.save(user);
+        List<String> touched = new ArrayList<>();
+        touched.add(user.getUsername());
+        if (user.getId() != null) {
+            // The username itself may be what changed
+            userRepository.findUsernameById(user.getId()).ifPresent(touched::add);
+        }
+        Users saved = userRepository.save(user);
+        userDetailsCache.evict(touched);
+        return saved;
     }
 
     public Users createUser(String username, String email, String password, Role role) {
@@ -43,15 +80,24 @@ public class UserService implements UserDetailsService {
         user.setPassword(passwordEncoder.encode(password));
         user.setRole(role);
         user.setEnabled(true);
-        return userRepository.save(user);
+        Users saved = userRepository.save(user);
+        // Drops a cached "not found" for this username
+        userDetailsCache.evict(List.of(username));
+        return saved;
     }
 
     public boolean existsByUsername(String username) {
-        return userRepository.findByUsername(username).isPresent();
+        return userRepository.existsByUsername(username);
     }
 
+    @Transactional
     public void deleteUser(Long id) {
-        userRepository.deleteById(id);
+        userRepository.findById(id).ifPresent(user -> {
+            // Passkeys are keyed by username, so they would otherwise carry over to a new user with the same name
+            passkeyService.deletePasskeys(user.getUsername());
+            userRepository.delete(user);
+            userDetailsCache.evict(List.of(user.getUsername()));
+        });
     }
 
 }
@@ -0,0 +1,149 @@
+package com.example.DevPlayground.service;
+
+import com.webauthn4j.WebAuthnManager;
+import com.webauthn4j.converter.util.CborConverter;
+import com.webauthn4j.converter.util.ObjectConverter;
+import com.webauthn4j.data.PublicKeyCredentialParameters;
+import com.webauthn4j.data.PublicKeyCredentialType;
+import com.webauthn4j.data.RegistrationData;
+import com.webauthn4j.data.RegistrationParameters;
+import com.webauthn4j.data.RegistrationRequest;
+import com.webauthn4j.data.attestation.authenticator.AttestedCredentialData;
+import com.webauthn4j.data.attestation.statement.COSEAlgorithmIdentifier;
+import com.webauthn4j.data.client.Origin;
+import com.webauthn4j.data.client.challenge.DefaultChallenge;
+import com.webauthn4j.server.ServerProperty;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * WebAuthnの登録（attestation）と認証（assertion）を検証する
+ * <p>
+ * 登録はwebauthn4jで検証し、COSE公開鍵をCBORのまま保存できる形で返す。
+ * 認証はキャッシュ済みの {@link PasskeySignatureVerifier} を使い、rpIdHash・UPフラグ・署名を検証する。
+ * clientDataJSONのtype・origin・challengeは {@link ClientDataParser} で検証済みであること
+ */
+@Component
+public class WebAuthnVerifier {
+
+    // 登録開始のレスポンスで提示するアルゴリズムと合わせる
+    public static final List<PublicKeyCredentialParameters> PUBLIC_KEY_CREDENTIAL_PARAMETERS = List.of(
+            new PublicKeyCredentialParameters(PublicKeyCredentialType.PUBLIC_KEY, COSEAlgorithmIdentifier.ES256),
+            new PublicKeyCredentialParameters(PublicKeyCredentialType.PUBLIC_KEY, COSEAlgorithmIdentifier.RS256)
+    );
+
+    private static final int RP_ID_HASH_LENGTH = 32;
+    private static final int AUTHENTICATOR_DATA_MIN_LENGTH = 37;
+    private static final byte FLAG_USER_PRESENT = 0x01;
+
+    private final WebAuthnManager webAuthnManager;
+    private final CborConverter cborConverter;
+    private final String rpId;
+    private final byte[] rpIdHash;
+    private final Set<Origin> origins;
+
+    public WebAuthnVerifier(WebAuthnManager webAuthnManager,
+                            ObjectConverter webAuthnObjectConverter,
+                            @Value("${passkey.rp-id:localhost}") String rpId,
+                            @Value("${passkey.allowed-origins:http://localhost:5173}") Collection<String> allowedOrigins) {
+        this.webAuthnManager = webAuthnManager;
+        this.cborConverter = webAuthnObjectConverter.getCborConverter();
+        this.rpId = rpId;
+        this.rpIdHash = sha256(rpId.getBytes(StandardCharsets.UTF_8));
+        this.origins = allowedOrigins.stream().map(Origin::new).collect(Collectors.toUnmodifiableSet());
+    }
+
+    public String getRpId() {
+        return rpId;
+    }
+
+    /**
+     * attestationObjectとclientDataJSONを検証し、保存する公開鍵を取り出す
+     *
+     * @param attestationObject Base64URLエンコードされたattestationObject
+     * @param clientDataJSON    Base64URLエンコードされたClientDataJSON
+     * @param challenge         発行したchallenge
+     * @return 登録するcredential
+     * @throws RuntimeException 検証に失敗した場合
+     */
+    public RegisteredCredential verifyRegistration(String attestationObject, String clientDataJSON, String challenge) {
+        RegistrationRequest registrationRequest = new RegistrationRequest(
+                Base64.getUrlDecoder().decode(attestationObject), Base64.getUrlDecoder().decode(clientDataJSON));
+        ServerProperty serverProperty = new ServerProperty(origins, rpId, new DefaultChallenge(challenge), null);
+        RegistrationParameters registrationParameters =
+                new RegistrationParameters(serverProperty, PUBLIC_KEY_CREDENTIAL_PARAMETERS, false, true);
+
+        RegistrationData registrationData = webAuthnManager.verify(registrationRequest, registrationParameters);
+        var authenticatorData = registrationData.getAttestationObject().getAuthenticatorData();
+        AttestedCredentialData credentialData = authenticatorData.getAttestedCredentialData();
+        if (credentialData == null) {
+            throw new RuntimeException("Attested credential data not found");
+        }
+        return new RegisteredCredential(
+                Base64.getUrlEncoder().withoutPadding().encodeToString(credentialData.getCredentialId()),
+                Base64.getUrlEncoder().withoutPadding().encodeToString(cborConverter.writeValueAsBytes(credentialData.getCOSEKey())),
+                authenticatorData.getSignCount()
+        );
+    }
+
+    /**
+     * assertionの署名を検証する
+     *
+     * @param verifier          credentialの公開鍵を持つPasskeySignatureVerifier
+     * @param authenticatorData Base64URLエンコードされたauthenticatorData
+     * @param clientDataJSON    Base64URLエンコードされたClientDataJSON
+     * @param signature         Base64URLエンコードされた署名
+     * @return 検証に成功した場合は認証器のsignCount、失敗した場合は -1
+     */
+    public long verifyAssertion(PasskeySignatureVerifier verifier, String authenticatorData, String clientDataJSON, String signature) {
+        byte[] authenticatorDataBytes;
+        byte[] clientDataBytes;
+        byte[] signatureBytes;
+        try {
+            authenticatorDataBytes = Base64.getUrlDecoder().decode(authenticatorData);
+            clientDataBytes = Base64.getUrlDecoder().decode(clientDataJSON);
+            signatureBytes = Base64.getUrlDecoder().decode(signature);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+
+        // authenticatorData: rpIdHash(32) | flags(1) | signCount(4) | ...
+        if (authenticatorDataBytes.length < AUTHENTICATOR_DATA_MIN_LENGTH
+                || !Arrays.equals(authenticatorDataBytes, 0, RP_ID_HASH_LENGTH, rpIdHash, 0, RP_ID_HASH_LENGTH)
+                || (authenticatorDataBytes[RP_ID_HASH_LENGTH] & FLAG_USER_PRESENT) == 0) {
+            return -1;
+        }
+        if (!verifier.verify(authenticatorDataBytes, sha256(clientDataBytes), signatureBytes)) {
+            return -1;
+        }
+        return ((authenticatorDataBytes[33] & 0xFFL) << 24)
+                | ((authenticatorDataBytes[34] & 0xFFL) << 16)
+                | ((authenticatorDataBytes[35] & 0xFFL) << 8)
+                | (authenticatorDataBytes[36] & 0xFFL);
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param credentialId Base64URLエンコードされたcredentialId
+     * @param publicKey    Base64URLエンコードされたCOSE公開鍵(CBOR)
+     * @param signCount    登録時のsignCount
+     */
+    public record RegisteredCredential(String credentialId, String publicKey, long signCount) {}
+}
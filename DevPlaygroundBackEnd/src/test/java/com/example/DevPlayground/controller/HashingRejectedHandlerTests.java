@@ -0,0 +1,61 @@
+package com.example.DevPlayground.controller;
+
+import com.example.DevPlayground.service.BoundedPasswordEncoder;
+import com.example.DevPlayground.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class HashingRejectedHandlerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockitoBean
+	private AuthenticationManager authenticationManager;
+
+	@MockitoSpyBean
+	private UserService userService;
+
+	@Test
+	void rejectedLoginIsServiceUnavailableWithRetryAfter() throws Exception {
+		when(authenticationManager.authenticate(any()))
+				.thenThrow(new BoundedPasswordEncoder.HashingRejectedException("Password hashing queue is full", null));
+
+		mockMvc.perform(post("/api/login")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"username\":\"busy\",\"password\":\"secret\"}"))
+				.andExpect(status().isServiceUnavailable())
+				.andExpect(header().string(HttpHeaders.RETRY_AFTER, HashingRejectedHandler.RETRY_AFTER_SECONDS));
+	}
+
+	@Test
+	@WithMockUser(roles = "ADMIN")
+	void rejectedUserCreationIsServiceUnavailableRatherThanAnError() throws Exception {
+		doThrow(new BoundedPasswordEncoder.HashingRejectedException("Password hashing timed out", null))
+				.when(userService).createUser(any(), any(), any(), any());
+
+		mockMvc.perform(post("/api/admin/users")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"username\":\"busy-user\",\"email\":\"busy@example.com\",\"password\":\"secret\",\"role\":\"USER\"}"))
+				.andExpect(status().isServiceUnavailable())
+				.andExpect(header().string(HttpHeaders.RETRY_AFTER, HashingRejectedHandler.RETRY_AFTER_SECONDS));
+	}
+}
@@ -0,0 +1,204 @@
+package com.example.DevPlayground.controller;
+
+import com.example.DevPlayground.entity.Todo;
+import com.example.DevPlayground.entity.TodoStatus;
+import com.example.DevPlayground.service.TodoService;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+class TodoControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private TodoService todoService;
+
+	@Test
+	void versionedStatusUpdateReturnsNewVersion() throws Exception {
+		Todo todo = todoService.createTodo("put-ok", "title", "description", TodoStatus.PENDING, null);
+
+		mockMvc.perform(put("/api/todo/user/put-ok/{id}/status", todo.getId())
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"version\":0,\"status\":\"COMPLETED\"}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.id").value(todo.getId()))
+				.andExpect(jsonPath("$.version").value(1));
+
+		assertThat(todoService.getTodoById(todo.getId()).orElseThrow().getStatus()).isEqualTo(TodoStatus.COMPLETED);
+	}
+
+	@Test
+	void versionedStatusUpdateKeepsStatusCountersCurrent() throws Exception {
+		Todo todo = todoService.createTodo("put-stats", "title", "description", TodoStatus.PENDING, null);
+		assertThat(todoService.getTodoStatsByUserName("put-stats").byStatus().get(TodoStatus.PENDING)).isEqualTo(1);
+
+		mockMvc.perform(put("/api/todo/user/put-stats/{id}/status", todo.getId())
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"version\":0,\"status\":\"COMPLETED\"}"))
+				.andExpect(status().isOk());
+
+		assertThat(todoService.getTodoStatsByUserName("put-stats").byStatus())
+				.containsEntry(TodoStatus.PENDING, 0L)
+				.containsEntry(TodoStatus.COMPLETED, 1L);
+	}
+
+	@Test
+	void unversionedStatusUpdateReturnsUpdatedTodoAndKeepsCountersCurrent() throws Exception {
+		Todo todo = todoService.createTodo("put-plain", "title", "description", TodoStatus.PENDING, null);
+		assertThat(todoService.getTodoStatsByUserName("put-plain").byStatus().get(TodoStatus.PENDING)).isEqualTo(1);
+
+		mockMvc.perform(put("/api/todo/update/{id}/status", todo.getId())
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"status\":\"COMPLETED\"}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.status").value("COMPLETED"))
+				.andExpect(jsonPath("$.version").value(1))
+				.andExpect(jsonPath("$.title").value("title"));
+
+		assertThat(todoService.getTodoStatsByUserName("put-plain").byStatus())
+				.containsEntry(TodoStatus.PENDING, 0L)
+				.containsEntry(TodoStatus.COMPLETED, 1L);
+	}
+
+	@Test
+	void versionedStatusUpdateOfUnknownTodoIsNotFound() throws Exception {
+		Todo todo = todoService.createTodo("put-owner", "title", "description", TodoStatus.PENDING, null);
+
+		mockMvc.perform(put("/api/todo/user/put-other/{id}/status", todo.getId())
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"version\":0,\"status\":\"COMPLETED\"}"))
+				.andExpect(status().isNotFound());
+	}
+
+	@Test
+	void versionedStatusUpdateWithStaleVersionConflicts() throws Exception {
+		Todo todo = todoService.createTodo("put-stale", "title", "description", TodoStatus.PENDING, null);
+		todoService.updateTodoStatus("put-stale", todo.getId(), 0, TodoStatus.IN_PROGRESS);
+
+		mockMvc.perform(put("/api/todo/user/put-stale/{id}/status", todo.getId())
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"version\":0,\"status\":\"COMPLETED\"}"))
+				.andExpect(status().isConflict());
+
+		assertThat(todoService.getTodoById(todo.getId()).orElseThrow().getStatus()).isEqualTo(TodoStatus.IN_PROGRESS);
+	}
+
+	@Test
+	void patchReturnsNewVersion() throws Exception {
+		Todo todo = todoService.createTodo("patch-ok", "title", "description", TodoStatus.PENDING, null);
+
+		mockMvc.perform(patch("/api/todo/user/patch-ok/{id}", todo.getId())
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"version\":0,\"title\":\"renamed\"}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.version").value(1));
+
+		assertThat(todoService.getTodoById(todo.getId()).orElseThrow().getTitle()).isEqualTo("renamed");
+	}
+
+	@Test
+	void patchOfUnknownTodoIsNotFound() throws Exception {
+		mockMvc.perform(patch("/api/todo/user/patch-missing/{id}", Long.MAX_VALUE)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"version\":0,\"title\":\"renamed\"}"))
+				.andExpect(status().isNotFound());
+	}
+
+	@Test
+	void patchWithStaleVersionConflicts() throws Exception {
+		Todo todo = todoService.createTodo("patch-stale", "title", "description", TodoStatus.PENDING, null);
+		todoService.patchTodo("patch-stale", todo.getId(), 0, "first", null, null);
+
+		mockMvc.perform(patch("/api/todo/user/patch-stale/{id}", todo.getId())
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"version\":0,\"title\":\"second\"}"))
+				.andExpect(status().isConflict());
+
+		assertThat(todoService.getTodoById(todo.getId()).orElseThrow().getTitle()).isEqualTo("first");
+	}
+
+	@Test
+	void pagesReturnEveryTodoOnceInDueDateThenIdOrder() throws Exception {
+		List<Long> expected = new ArrayList<>();
+		// Three without a due date and three sharing one, so page boundaries fall inside both tie groups
+		for (int i = 0; i < 3; i++) {
+			expected.add(todoService.createTodo("page-walk", "none " + i, "description", TodoStatus.PENDING, null).getId());
+		}
+		List<Long> later = new ArrayList<>();
+		for (int i = 0; i < 2; i++) {
+			later.add(todoService.createTodo("page-walk", "later " + i, "description", TodoStatus.PENDING,
+					"2031-01-01T09:00").getId());
+		}
+		for (int i = 0; i < 3; i++) {
+			expected.add(todoService.createTodo("page-walk", "same " + i, "description", TodoStatus.PENDING,
+					"2030-06-01T12:00").getId());
+		}
+		expected.addAll(later);
+
+		List<Long> seen = new ArrayList<>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			var request = get("/api/todo/user/page-walk/page").param("size", "2");
+			if (cursor != null) {
+				request.param("cursor", cursor);
+			}
+			String body = mockMvc.perform(request)
+					.andExpect(status().isOk())
+					.andReturn().getResponse().getContentAsString();
+			List<Number> ids = JsonPath.read(body, "$.items[*].id");
+			ids.forEach(id -> seen.add(id.longValue()));
+			cursor = JsonPath.read(body, "$.nextCursor");
+			pages++;
+		} while (cursor != null && pages < 10);
+
+		assertThat(seen).containsExactlyElementsOf(expected);
+		assertThat(pages).isEqualTo(4);
+	}
+
+	@Test
+	void lastPageHasNoCursor() throws Exception {
+		todoService.createTodo("page-single", "title", "description", TodoStatus.PENDING, null);
+
+		mockMvc.perform(get("/api/todo/user/page-single/page").param("size", "5"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.items.length()").value(1))
+				.andExpect(jsonPath("$.nextCursor").value(nullValue()));
+	}
+
+	@Test
+	void malformedCursorIsBadRequest() throws Exception {
+		for (String cursor : List.of("not base64!", encode("no separator"), encode("2030-06-01T12:00|abc"),
+				encode("not-a-date|1"))) {
+			mockMvc.perform(get("/api/todo/user/page-bad/page").param("cursor", cursor))
+					.andExpect(status().isBadRequest());
+		}
+	}
+
+	private static String encode(String raw) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,103 @@
+package com.example.DevPlayground.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthRateLimiterTests {
+
+	private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+	// 60/min is one permit per second, with three available at once
+	private AuthRateLimiter limiter(int maxKeys) {
+		return new AuthRateLimiter(true, 60, 3, 60, 3, maxKeys, new SimpleMeterRegistry(), clock::get);
+	}
+
+	@Test
+	void fullBucketAllowsBurstThenRejects() {
+		AuthRateLimiter limiter = limiter(100);
+
+		for (int i = 0; i < 3; i++) {
+			assertThat(limiter.tryAcquireIp("10.0.0.1")).isZero();
+		}
+		assertThat(limiter.tryAcquireIp("10.0.0.1")).isPositive();
+	}
+
+	@Test
+	void retryAfterIsTimeUntilNextPermit() {
+		AuthRateLimiter limiter = limiter(100);
+		for (int i = 0; i < 3; i++) {
+			limiter.tryAcquireIp("10.0.0.1");
+		}
+
+		assertThat(limiter.tryAcquireIp("10.0.0.1")).isEqualTo(Duration.ofSeconds(1));
+		advance(Duration.ofMillis(400));
+		assertThat(limiter.tryAcquireIp("10.0.0.1")).isEqualTo(Duration.ofMillis(600));
+	}
+
+	@Test
+	void bucketRefillsAtConfiguredRate() {
+		AuthRateLimiter limiter = limiter(100);
+		for (int i = 0; i < 3; i++) {
+			limiter.tryAcquireIp("10.0.0.1");
+		}
+
+		advance(Duration.ofSeconds(1));
+		assertThat(limiter.tryAcquireIp("10.0.0.1")).isZero();
+		assertThat(limiter.tryAcquireIp("10.0.0.1")).isPositive();
+
+		// A long pause refills up to the burst, never beyond it
+		advance(Duration.ofHours(1));
+		for (int i = 0; i < 3; i++) {
+			assertThat(limiter.tryAcquireIp("10.0.0.1")).isZero();
+		}
+		assertThat(limiter.tryAcquireIp("10.0.0.1")).isPositive();
+	}
+
+	@Test
+	void usernameLimitIsPerClient() {
+		AuthRateLimiter limiter = limiter(100);
+		for (int i = 0; i < 3; i++) {
+			limiter.tryAcquireUsername("alice", "10.0.0.1");
+		}
+		assertThat(limiter.tryAcquireUsername("alice", "10.0.0.1")).isPositive();
+
+		// Another client exhausting alice's bucket must not lock alice out everywhere
+		assertThat(limiter.tryAcquireUsername("alice", "10.0.0.2")).isZero();
+		assertThat(limiter.tryAcquireUsername("bob", "10.0.0.1")).isZero();
+	}
+
+	@Test
+	void newKeysBeyondMaxKeysGetTheirOwnBuckets() {
+		AuthRateLimiter limiter = limiter(10);
+
+		// Far more distinct clients than max-keys; none of them may be throttled by the others
+		for (int i = 0; i < 1000; i++) {
+			assertThat(limiter.tryAcquireIp("10.0." + i / 256 + "." + i % 256)).isZero();
+			assertThat(limiter.tryAcquireUsername("user" + i, "10.1.0.1")).isZero();
+		}
+		assertThat(limiter.bucketCount()).isLessThanOrEqualTo(20);
+	}
+
+	@Test
+	void idleBucketsAreEvicted() {
+		AuthRateLimiter limiter = limiter(100);
+		limiter.tryAcquireIp("10.0.0.1");
+		limiter.tryAcquireUsername("alice", "10.0.0.1");
+
+		limiter.evictIdle();
+		assertThat(limiter.bucketCount()).isEqualTo(2);
+
+		advance(Duration.ofSeconds(1));
+		limiter.evictIdle();
+		assertThat(limiter.bucketCount()).isZero();
+	}
+
+	private void advance(Duration duration) {
+		clock.addAndGet(duration.toNanos());
+	}
+}
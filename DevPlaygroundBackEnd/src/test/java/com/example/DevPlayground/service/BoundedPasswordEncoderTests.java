@@ -0,0 +1,149 @@
+package com.example.DevPlayground.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final BlockingEncoder delegate = new BlockingEncoder();
+	private BoundedPasswordEncoder encoder;
+
+	@AfterEach
+	void close() {
+		delegate.release.countDown();
+		encoder.close();
+	}
+
+	@Test
+	void hashesOnThePool() {
+		delegate.release.countDown();
+		encoder = new BoundedPasswordEncoder(delegate, 1, 1, Duration.ofSeconds(5), meterRegistry);
+
+		assertThat(encoder.encode("secret")).isEqualTo("hashed:secret");
+		assertThat(encoder.matches("secret", "hashed:secret")).isTrue();
+		assertThat(rejected()).isZero();
+	}
+
+	@Test
+	void rejectsImmediatelyWhenThreadsAndQueueAreFull() throws Exception {
+		encoder = new BoundedPasswordEncoder(delegate, 1, 1, Duration.ofSeconds(5), meterRegistry);
+		CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+		assertThat(delegate.started.await(5, TimeUnit.SECONDS)).isTrue();
+		CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("second"));
+		awaitQueued(1);
+
+		long start = System.nanoTime();
+		assertThatThrownBy(() -> encoder.encode("third"))
+				.isInstanceOf(BoundedPasswordEncoder.HashingRejectedException.class)
+				.hasMessageContaining("queue is full");
+		assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+		assertThat(rejected()).isEqualTo(1);
+
+		delegate.release.countDown();
+		assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hashed:first");
+		assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hashed:second");
+	}
+
+	@Test
+	void callerStopsWaitingAfterTheTimeout() {
+		encoder = new BoundedPasswordEncoder(delegate, 1, 1, Duration.ofMillis(100), meterRegistry);
+
+		assertThatThrownBy(() -> encoder.matches("secret", "hashed:secret"))
+				.isInstanceOf(BoundedPasswordEncoder.HashingRejectedException.class)
+				.hasMessageContaining("timed out");
+		assertThat(rejected()).isEqualTo(1);
+	}
+
+	@Test
+	void queuedWorkWhoseCallerTimedOutIsNeverHashed() throws Exception {
+		encoder = new BoundedPasswordEncoder(delegate, 1, 1, Duration.ofMillis(200), meterRegistry);
+		CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+		assertThat(delegate.started.await(5, TimeUnit.SECONDS)).isTrue();
+
+		assertThatThrownBy(() -> encoder.encode("second"))
+				.isInstanceOf(BoundedPasswordEncoder.HashingRejectedException.class);
+		assertThatThrownBy(running::join).hasCauseInstanceOf(BoundedPasswordEncoder.HashingRejectedException.class);
+
+		delegate.release.countDown();
+		// The running hash completes on the pool; the queued one is dropped instead of hashed
+		assertThat(encoder.encode("third")).isEqualTo("hashed:third");
+		assertThat(delegate.calls.get()).isEqualTo(2);
+	}
+
+	@Test
+	void delegateFailuresAreNotRejections() {
+		delegate.release.countDown();
+		encoder = new BoundedPasswordEncoder(delegate, 1, 1, Duration.ofSeconds(5), meterRegistry);
+
+		assertThatThrownBy(() -> encoder.matches("secret", "malformed"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Unknown hash");
+		assertThat(rejected()).isZero();
+	}
+
+	private double rejected() {
+		return meterRegistry.get("password.hashing.rejected").counter().count();
+	}
+
+	private void awaitQueued(int tasks) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (meterRegistry.get("executor.queued").tag("name", "password.hashing").gauge().value() < tasks) {
+			assertThat(System.nanoTime() - deadline).isNegative();
+			Thread.sleep(5);
+		}
+	}
+
+	/**
+	 * Holds every hash until released, so tests can fill the pool.
+	 */
+	private static class BlockingEncoder implements PasswordEncoder {
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicInteger calls = new AtomicInteger();
+
+		@Override
+		public String encode(CharSequence rawPassword) {
+			await();
+			return "hashed:" + rawPassword;
+		}
+
+		@Override
+		public boolean matches(CharSequence rawPassword, String encodedPassword) {
+			await();
+			if (!encodedPassword.startsWith("hashed:")) {
+				throw new IllegalArgumentException("Unknown hash");
+			}
+			return encodedPassword.equals("hashed:" + rawPassword);
+		}
+
+		// Like bcrypt, ignores interruption once it has started
+		private void await() {
+			calls.incrementAndGet();
+			started.countDown();
+			boolean interrupted = false;
+			while (true) {
+				try {
+					release.await();
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package com.example.DevPlayground.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CacheLoadsTests {
+
+	private final AsyncCache<String, String> cache = Caffeine.newBuilder().buildAsync();
+
+	@Test
+	void loadedValueIsCached() {
+		AtomicInteger loads = new AtomicInteger();
+
+		assertThat(CacheLoads.getOrLoad(cache, "key", key -> "value" + loads.incrementAndGet())).isEqualTo("value1");
+		assertThat(CacheLoads.getOrLoad(cache, "key", key -> "value" + loads.incrementAndGet())).isEqualTo("value1");
+		assertThat(loads).hasValue(1);
+	}
+
+	@Test
+	void concurrentCallersShareOneLoad() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger loads = new AtomicInteger();
+		CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> CacheLoads.getOrLoad(cache, "key", key -> {
+			loads.incrementAndGet();
+			loading.countDown();
+			await(release);
+			return "value";
+		}));
+		assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+		CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> CacheLoads.getOrLoad(cache, "key", key -> {
+			loads.incrementAndGet();
+			return "other";
+		}));
+		release.countDown();
+
+		assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+		assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+		assertThat(loads).hasValue(1);
+	}
+
+	@Test
+	void invalidationDuringLoadDiscardsTheLoadedValue() {
+		String value = CacheLoads.getOrLoad(cache, "key", key -> {
+			// e.g. a write evicting the key while the stale row is still being read
+			cache.synchronous().invalidate(key);
+			return "stale";
+		});
+
+		assertThat(value).isEqualTo("stale");
+		assertThat(cache.getIfPresent("key")).isNull();
+		assertThat(CacheLoads.getOrLoad(cache, "key", key -> "fresh")).isEqualTo("fresh");
+	}
+
+	@Test
+	void nullAndFailedLoadsAreNotCached() {
+		assertThat(CacheLoads.getOrLoad(cache, "key", key -> null)).isNull();
+		assertThat(cache.getIfPresent("key")).isNull();
+
+		assertThatThrownBy(() -> CacheLoads.getOrLoad(cache, "key", key -> {
+			throw new IllegalStateException("boom");
+		})).isInstanceOf(IllegalStateException.class).hasMessage("boom");
+		assertThat(cache.getIfPresent("key")).isNull();
+		assertThat(CacheLoads.getOrLoad(cache, "key", key -> "value")).isEqualTo("value");
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package com.example.DevPlayground.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ClientDataParserTests {
+
+	private static final String ORIGIN = "http://localhost:5173";
+
+	private final ClientDataParser parser = new ClientDataParser(new JsonFactory(), List.of(ORIGIN));
+
+	@Test
+	void returnsChallengeOfMatchingClientData() {
+		String clientData = "{\"type\":\"webauthn.get\",\"challenge\":\"abc-_123\",\"origin\":\"" + ORIGIN + "\",\"crossOrigin\":false}";
+
+		assertThat(parser.extractChallenge(encode(clientData), ClientDataParser.TYPE_GET)).isEqualTo("abc-_123");
+	}
+
+	@Test
+	void fieldsMayComeInAnyOrderAfterSkippedValues() {
+		String clientData = "{\"tokenBinding\":{\"status\":\"present\",\"id\":[1,2,{\"x\":\"}\"}]},"
+				+ "\"origin\":\"" + ORIGIN + "\",\"other\":null,\"challenge\":\"abc\",\"type\":\"webauthn.create\"}";
+
+		assertThat(parser.extractChallenge(encode(clientData), ClientDataParser.TYPE_CREATE)).isEqualTo("abc");
+	}
+
+	@Test
+	void escapedStringsAreDecoded() {
+		String clientData = "{\"type\":\"webauthn\\u002eget\",\"challenge\":\"a\\/b\\u0063\","
+				+ "\"origin\":\"http:\\/\\/localhost:5173\"}";
+
+		assertThat(parser.extractChallenge(encode(clientData), ClientDataParser.TYPE_GET)).isEqualTo("a/bc");
+	}
+
+	@Test
+	void nonAsciiOriginIsComparedAfterDecoding() {
+		ClientDataParser parser = new ClientDataParser(new JsonFactory(), List.of("https://例え.jp"));
+		String clientData = "{\"type\":\"webauthn.get\",\"challenge\":\"abc\",\"origin\":\"https://\\u4f8b\\u3048.jp\"}";
+
+		assertThat(parser.extractChallenge(encode(clientData), ClientDataParser.TYPE_GET)).isEqualTo("abc");
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"{\"type\":\"webauthn.get\",\"type\":\"webauthn.create\",\"challenge\":\"abc\",\"origin\":\"" + ORIGIN + "\"}",
+			"{\"type\":\"webauthn.get\",\"challenge\":\"abc\",\"challenge\":\"def\",\"origin\":\"" + ORIGIN + "\"}",
+			"{\"origin\":\"https://evil.example\",\"type\":\"webauthn.get\",\"origin\":\"" + ORIGIN + "\",\"challenge\":\"abc\"}",
+	})
+	void duplicateFieldsAreRejected(String clientData) {
+		assertThatThrownBy(() -> parser.extractChallenge(encode(clientData), ClientDataParser.TYPE_GET))
+				.isInstanceOf(RuntimeException.class)
+				.hasMessageContaining("Duplicate field");
+	}
+
+	@Test
+	void wrongTypeIsRejected() {
+		String clientData = "{\"type\":\"webauthn.create\",\"challenge\":\"abc\",\"origin\":\"" + ORIGIN + "\"}";
+
+		assertThatThrownBy(() -> parser.extractChallenge(encode(clientData), ClientDataParser.TYPE_GET))
+				.isInstanceOf(RuntimeException.class)
+				.hasMessageContaining("Unexpected client data type");
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {"https://localhost:5173", "http://localhost:5174", "http://localhost:5173/", "HTTP://LOCALHOST:5173"})
+	void originsOtherThanAllowedAreRejected(String origin) {
+		String clientData = "{\"type\":\"webauthn.get\",\"challenge\":\"abc\",\"origin\":\"" + origin + "\"}";
+
+		assertThatThrownBy(() -> parser.extractChallenge(encode(clientData), ClientDataParser.TYPE_GET))
+				.isInstanceOf(RuntimeException.class)
+				.hasMessageContaining("Origin not allowed");
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"{\"type\":\"webauthn.get\",\"origin\":\"" + ORIGIN + "\"}",
+			"{\"challenge\":\"abc\",\"origin\":\"" + ORIGIN + "\"}",
+			"{\"type\":\"webauthn.get\",\"challenge\":\"abc\"}",
+	})
+	void missingFieldsAreRejected(String clientData) {
+		assertThatThrownBy(() -> parser.extractChallenge(encode(clientData), ClientDataParser.TYPE_GET))
+				.isInstanceOf(RuntimeException.class);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"{\"type\":1,\"challenge\":\"abc\",\"origin\":\"" + ORIGIN + "\"}",
+			"{\"type\":\"webauthn.get\",\"challenge\":null,\"origin\":\"" + ORIGIN + "\"}",
+			"{\"type\":\"webauthn.get\",\"challenge\":[\"abc\"],\"origin\":\"" + ORIGIN + "\"}",
+			"{\"type\":\"webauthn.get\",\"challenge\":\"abc\",\"origin\":{}}",
+	})
+	void nonStringFieldsAreRejected(String clientData) {
+		assertThatThrownBy(() -> parser.extractChallenge(encode(clientData), ClientDataParser.TYPE_GET))
+				.isInstanceOf(RuntimeException.class)
+				.hasMessageContaining("must be a string");
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"",
+			"{",
+			"{\"type\":\"webauthn.get\",\"challenge\":\"ab",
+			"{\"type\":\"webauthn.get\",\"challenge\":\"abc\\u00",
+			"{\"type\":\"webauthn.get\",\"challenge\":\"abc\",",
+			"{\"type\":\"webauthn.get\",\"challenge\"",
+			"{\"tokenBinding\":{\"status\":\"present\"",
+			"[\"webauthn.get\"]",
+			"\"webauthn.get\"",
+	})
+	void truncatedOrNonObjectInputIsRejected(String clientData) {
+		assertThatThrownBy(() -> parser.extractChallenge(encode(clientData), ClientDataParser.TYPE_GET))
+				.isInstanceOf(RuntimeException.class);
+	}
+
+	@Test
+	void invalidBase64IsRejected() {
+		assertThatThrownBy(() -> parser.extractChallenge("not base64!", ClientDataParser.TYPE_GET))
+				.isInstanceOf(RuntimeException.class)
+				.hasMessageContaining("Base64URL");
+	}
+
+	private static String encode(String clientData) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(clientData.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,68 @@
+package com.example.DevPlayground.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DueDateParserTests {
+
+	@ParameterizedTest
+	@CsvSource({
+			"2030-01-02T03:04,                2030-01-02T03:04:00",
+			"2030-01-02t03:04,                2030-01-02T03:04:00",
+			"2030-01-02T03:04:05,             2030-01-02T03:04:05",
+			"2030-01-02T03:04:05.1,           2030-01-02T03:04:05.100",
+			"2030-01-02T03:04:05.000001,      2030-01-02T03:04:05.000001",
+			"2030-01-02T03:04:05.123456789,   2030-01-02T03:04:05.123456789",
+			"2030-12-31T23:59:59,             2030-12-31T23:59:59",
+			"2024-02-29T00:00,                2024-02-29T00:00:00",
+			"2000-02-29T12:00,                2000-02-29T12:00:00",
+	})
+	void acceptedFormats(String text, String expected) {
+		assertThat(DueDateParser.parse(text)).isEqualTo(LocalDateTime.parse(expected));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"",
+			"2030-01-02",
+			"2030-01-02T03",
+			"2030-01-02 03:04",
+			"2030/01/02T03:04",
+			"2030-01-02T03-04",
+			"2030-1-02T03:04",
+			"2030-0a-02T03:04",
+			"+2030-01-02T03:04",
+			"2030-13-01T00:00",
+			"2030-00-10T00:00",
+			"2030-01-00T00:00",
+			"2025-02-30T00:00",
+			"2025-02-29T00:00",
+			"1900-02-29T00:00",
+			"2030-04-31T00:00",
+			"2030-01-02T24:00",
+			"2030-01-02T23:60",
+			"2030-01-02T03:04:60",
+			"2030-01-02T03:04:",
+			"2030-01-02T03:04:5",
+			"2030-01-02T03:04.05",
+			"2030-01-02T03:04:05.",
+			"2030-01-02T03:04:05,1",
+			"2030-01-02T03:04:05.1234567890",
+			"2030-01-02T03:04:05.12a",
+			"2030-01-02T03:04Z",
+	})
+	void rejectedInputs(String text) {
+		assertThat(DueDateParser.parse(text)).isNull();
+	}
+
+	@Test
+	void nullIsRejected() {
+		assertThat(DueDateParser.parse(null)).isNull();
+	}
+}
@@ -0,0 +1,61 @@
+package com.example.DevPlayground.service;
+
+import com.example.DevPlayground.dto.PasskeyRegistrationFinishRequest;
+import com.example.DevPlayground.dto.PasskeyRegistrationFinishResponse;
+import com.example.DevPlayground.entity.Role;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "passkey.challenge-store=jpa")
+class PasskeyChallengeReplayTests {
+
+	@Autowired
+	private PasskeyService passkeyService;
+
+	@Autowired
+	private PasskeyChallengeStore passkeyChallengeStore;
+
+	@Autowired
+	private UserService userService;
+
+	@Test
+	void challengeStaysConsumedWhenVerificationThrows() {
+		assertThat(passkeyChallengeStore).isInstanceOf(JpaPasskeyChallengeStore.class);
+		userService.createUser("replay", "replay@example.com", "password", Role.USER);
+		String challenge = passkeyService.startRegistration("replay").getChallenge();
+		PasskeyRegistrationFinishRequest request = registration("replay", challenge);
+
+		// The attestation object is not CBOR, so verification throws after the challenge was consumed
+		assertThatThrownBy(() -> passkeyService.finishRegistration(request)).isInstanceOf(RuntimeException.class);
+
+		PasskeyRegistrationFinishResponse replayed = passkeyService.finishRegistration(request);
+		assertThat(replayed.isSuccess()).isFalse();
+		assertThat(replayed.getMessage()).isEqualTo("Invalid challenge");
+	}
+
+	private static PasskeyRegistrationFinishRequest registration(String username, String challenge) {
+		String clientData = "{\"type\":\"webauthn.create\",\"challenge\":\"" + challenge
+				+ "\",\"origin\":\"http://localhost:5173\"}";
+		PasskeyRegistrationFinishRequest.RegistrationResponse response = new PasskeyRegistrationFinishRequest.RegistrationResponse();
+		response.setId("credential");
+		response.setRawId("credential");
+		response.setType("public-key");
+		response.setClientDataJSON(base64Url(clientData.getBytes(StandardCharsets.UTF_8)));
+		response.setAttestationObject(base64Url("not an attestation".getBytes(StandardCharsets.UTF_8)));
+		PasskeyRegistrationFinishRequest request = new PasskeyRegistrationFinishRequest();
+		request.setUsername(username);
+		request.setRegistrationResponse(response);
+		return request;
+	}
+
+	private static String base64Url(byte[] bytes) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+	}
+}
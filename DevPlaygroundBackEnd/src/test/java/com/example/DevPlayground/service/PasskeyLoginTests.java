@@ -0,0 +1,110 @@
+package com.example.DevPlayground.service;
+
+import com.example.DevPlayground.dto.PasskeyLoginFinishRequest;
+import com.example.DevPlayground.dto.PasskeyLoginFinishResponse;
+import com.example.DevPlayground.entity.Passkey;
+import com.example.DevPlayground.entity.Role;
+import com.example.DevPlayground.repository.PasskeyRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static com.example.DevPlayground.service.TestAuthenticator.FLAG_USER_PRESENT;
+import static com.example.DevPlayground.service.TestAuthenticator.authenticatorData;
+import static com.example.DevPlayground.service.TestAuthenticator.base64Url;
+import static com.example.DevPlayground.service.TestAuthenticator.clientData;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class PasskeyLoginTests {
+
+	private static final String ORIGIN = "http://localhost:5173";
+
+	@Autowired
+	private PasskeyService passkeyService;
+
+	@Autowired
+	private PasskeyRepository passkeyRepository;
+
+	@Autowired
+	private UserService userService;
+
+	@Test
+	void counterThatDidNotIncreaseIsRejected() {
+		TestAuthenticator authenticator = register("counter-same", "counter-same-key", 5);
+
+		PasskeyLoginFinishResponse same = login(authenticator, "counter-same", "counter-same-key", 5);
+		assertThat(same.isSuccess()).isFalse();
+		assertThat(same.getMessage()).isEqualTo("Invalid signature counter");
+
+		PasskeyLoginFinishResponse lower = login(authenticator, "counter-same", "counter-same-key", 4);
+		assertThat(lower.isSuccess()).isFalse();
+		assertThat(lower.getMessage()).isEqualTo("Invalid signature counter");
+		assertThat(passkeyRepository.findByCredentialId("counter-same-key").orElseThrow().getSignatureCount()).isEqualTo(5);
+	}
+
+	@Test
+	void acceptedCounterCannotBeUsedAgain() {
+		TestAuthenticator authenticator = register("counter-replay", "counter-replay-key", 5);
+
+		PasskeyLoginFinishResponse first = login(authenticator, "counter-replay", "counter-replay-key", 6);
+		assertThat(first.isSuccess()).isTrue();
+		assertThat(first.getUsername()).isEqualTo("counter-replay");
+		assertThat(passkeyRepository.findByCredentialId("counter-replay-key").orElseThrow().getSignatureCount()).isEqualTo(6);
+
+		// A fresh challenge, but a cloned authenticator would report the same counter
+		PasskeyLoginFinishResponse cloned = login(authenticator, "counter-replay", "counter-replay-key", 6);
+		assertThat(cloned.isSuccess()).isFalse();
+		assertThat(cloned.getMessage()).isEqualTo("Invalid signature counter");
+	}
+
+	@Test
+	void authenticatorsWithoutCounterAlwaysReportZero() {
+		TestAuthenticator authenticator = register("counter-none", "counter-none-key", 0);
+
+		assertThat(login(authenticator, "counter-none", "counter-none-key", 0).isSuccess()).isTrue();
+		assertThat(login(authenticator, "counter-none", "counter-none-key", 0).isSuccess()).isTrue();
+	}
+
+	@Test
+	void credentialOfAnotherUserIsRejected() {
+		TestAuthenticator authenticator = register("credential-owner", "credential-owner-key", 0);
+		register("credential-other", "credential-other-key", 0);
+
+		PasskeyLoginFinishResponse response = login(authenticator, "credential-other", "credential-owner-key", 1);
+		assertThat(response.isSuccess()).isFalse();
+		assertThat(response.getMessage()).isEqualTo("Invalid credential");
+	}
+
+	private TestAuthenticator register(String username, String credentialId, long signatureCount) {
+		userService.createUser(username, username + "@example.com", "password", Role.USER);
+		TestAuthenticator authenticator = new TestAuthenticator();
+		Passkey passkey = new Passkey();
+		passkey.setUsername(username);
+		passkey.setCredentialId(credentialId);
+		passkey.setPublicKey(authenticator.coseKey());
+		passkey.setSignatureCount(signatureCount);
+		passkey.setAttestationObject("none");
+		passkey.setClientDataJSON("none");
+		passkeyRepository.save(passkey);
+		return authenticator;
+	}
+
+	private PasskeyLoginFinishResponse login(TestAuthenticator authenticator, String username, String credentialId, long signCount) {
+		String challenge = passkeyService.startLogin(username).getChallenge();
+		byte[] authenticatorData = authenticatorData("localhost", FLAG_USER_PRESENT, signCount);
+		byte[] clientData = clientData(challenge, ORIGIN);
+
+		PasskeyLoginFinishRequest.AuthenticationResponse response = new PasskeyLoginFinishRequest.AuthenticationResponse();
+		response.setId(credentialId);
+		response.setRawId(credentialId);
+		response.setType("public-key");
+		response.setAuthenticatorData(base64Url(authenticatorData));
+		response.setClientDataJSON(base64Url(clientData));
+		response.setSignature(base64Url(authenticator.sign(authenticatorData, clientData)));
+		PasskeyLoginFinishRequest request = new PasskeyLoginFinishRequest();
+		request.setUsername(username);
+		request.setAuthenticationResponse(response);
+		return passkeyService.finishLogin(request);
+	}
+}
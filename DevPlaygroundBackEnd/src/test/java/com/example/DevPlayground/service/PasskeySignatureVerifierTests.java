@@ -0,0 +1,51 @@
+package com.example.DevPlayground.service;
+
+import com.example.DevPlayground.dto.PasskeyCredential;
+import com.webauthn4j.converter.util.ObjectConverter;
+import org.junit.jupiter.api.Test;
+
+import static com.example.DevPlayground.service.TestAuthenticator.FLAG_USER_PRESENT;
+import static com.example.DevPlayground.service.TestAuthenticator.authenticatorData;
+import static com.example.DevPlayground.service.TestAuthenticator.clientData;
+import static com.example.DevPlayground.service.TestAuthenticator.sha256;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasskeySignatureVerifierTests {
+
+	private final TestAuthenticator authenticator = new TestAuthenticator();
+
+	@Test
+	void verifiesWithKeyDecodedFromStoredCoseKey() {
+		PasskeySignatureVerifier verifier = stored(authenticator.coseKey(), 3);
+		byte[] authenticatorData = authenticatorData("localhost", FLAG_USER_PRESENT, 4);
+		byte[] clientData = clientData("abc", "http://localhost:5173");
+		byte[] signature = authenticator.sign(authenticatorData, clientData);
+
+		assertThat(verifier.verify(authenticatorData, sha256(clientData), signature)).isTrue();
+		signature[10] ^= 0x01;
+		assertThat(verifier.verify(authenticatorData, sha256(clientData), signature)).isFalse();
+		assertThat(verifier.verify(authenticatorData, sha256(clientData), new byte[0])).isFalse();
+	}
+
+	@Test
+	void signatureCountNeverMovesBackwards() {
+		PasskeySignatureVerifier verifier = stored(authenticator.coseKey(), 3);
+
+		verifier.advanceSignatureCount(7);
+		verifier.advanceSignatureCount(5);
+
+		assertThat(verifier.getSignatureCount()).isEqualTo(7);
+	}
+
+	@Test
+	void undecodableKeyIsRejected() {
+		assertThatThrownBy(() -> stored(TestAuthenticator.base64Url(new byte[] {(byte) 0xA0}), 0))
+				.isInstanceOf(RuntimeException.class);
+	}
+
+	private static PasskeySignatureVerifier stored(String publicKey, long signatureCount) {
+		return PasskeySignatureVerifier.create(new PasskeyCredential(1L, "credential", "alice", publicKey, signatureCount),
+				new ObjectConverter().getCborConverter());
+	}
+}
@@ -0,0 +1,253 @@
+package com.example.DevPlayground.service;
+
+import com.example.DevPlayground.repository.StoredSessionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.core.session.SessionInformation;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.session.security.SpringSessionBackedSessionRegistry;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.session.store=jdbc")
+class SharedSessionRepositoryTests {
+
+	@Autowired
+	private SharedSessionRepository sessionRepository;
+
+	@Autowired
+	private StoredSessionRepository storedSessionRepository;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void sessionSavedOnOneNodeIsReadOnAnother() {
+		SharedSessionRepository.SharedSession session = sessionRepository.createSession();
+		User user = new User("alice", "{noop}secret", AuthorityUtils.createAuthorityList("ROLE_USER"));
+		user.eraseCredentials();
+		SecurityContext context = new SecurityContextImpl(
+				UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities()));
+		session.setAttribute("SPRING_SECURITY_CONTEXT", context);
+		session.setAttribute("counter", 42);
+		sessionRepository.save(session);
+
+		SharedSessionRepository.SharedSession loaded = otherNode().findById(session.getId());
+
+		assertThat(loaded).isNotNull();
+		assertThat(loaded.getAttributeNames()).containsExactlyInAnyOrder("SPRING_SECURITY_CONTEXT", "counter");
+		assertThat((Integer) loaded.getAttribute("counter")).isEqualTo(42);
+		SecurityContext loadedContext = loaded.getAttribute("SPRING_SECURITY_CONTEXT");
+		assertThat(loadedContext.getAuthentication().getName()).isEqualTo("alice");
+		assertThat(loadedContext.getAuthentication().getAuthorities())
+				.extracting("authority").containsExactly("ROLE_USER");
+	}
+
+	@Test
+	void lastAccessIsWrittenOnlyOncePerInterval() {
+		SharedSessionRepository.SharedSession session = sessionRepository.createSession();
+		sessionRepository.save(session);
+		long stored = storedAccessTime(session.getId());
+
+		session.setLastAccessedTime(Instant.ofEpochMilli(stored).plusSeconds(10));
+		sessionRepository.save(session);
+		assertThat(storedAccessTime(session.getId())).isEqualTo(stored);
+
+		session.setLastAccessedTime(Instant.ofEpochMilli(stored).plus(Duration.ofMinutes(2)));
+		sessionRepository.save(session);
+		assertThat(storedAccessTime(session.getId())).isEqualTo(stored + Duration.ofMinutes(2).toMillis());
+	}
+
+	@Test
+	void changedSessionIdReplacesTheOldOne() {
+		SharedSessionRepository.SharedSession session = sessionRepository.createSession();
+		session.setAttribute("name", "value");
+		sessionRepository.save(session);
+		String oldId = session.getId();
+
+		String newId = session.changeSessionId();
+		sessionRepository.save(session);
+
+		SharedSessionRepository.SharedSession otherNode = otherNode().findById(newId);
+		assertThat(otherNode).isNotNull();
+		assertThat((String) otherNode.getAttribute("name")).isEqualTo("value");
+		assertThat(sessionRepository.findById(oldId)).isNull();
+	}
+
+	@Test
+	void idsAreRandomUrlSafeStrings() {
+		SharedSessionRepository.SharedSession session = sessionRepository.createSession();
+		String first = session.getId();
+		String second = session.changeSessionId();
+
+		assertThat(first).matches("[A-Za-z0-9_-]{43}");
+		assertThat(second).matches("[A-Za-z0-9_-]{43}").isNotEqualTo(first);
+		assertThat(sessionRepository.createSession().getId()).isNotEqualTo(first);
+	}
+
+	@Test
+	void sessionIsFoundOncePerRequest() {
+		SharedSessionRepository.SharedSession session = sessionRepository.createSession();
+		sessionRepository.save(session);
+		SpringSessionBackedSessionRegistry<SharedSessionRepository.SharedSession> registry =
+				new SpringSessionBackedSessionRegistry<>(sessionRepository);
+
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+		try {
+			SharedSessionRepository.SharedSession found = sessionRepository.findById(session.getId());
+			// Gone from the table, yet the registry's lookup in the same request does not read it again
+			new TransactionTemplate(transactionManager).executeWithoutResult(
+					status -> storedSessionRepository.deleteBySessionId(session.getId()));
+
+			assertThat(sessionRepository.findById(session.getId())).isSameAs(found);
+			assertThat(registry.getSessionInformation(session.getId())).isNotNull();
+		} finally {
+			RequestContextHolder.resetRequestAttributes();
+		}
+		assertThat(sessionRepository.findById(session.getId())).isNull();
+	}
+
+	@Test
+	void sessionDeletedDuringARequestIsNotFoundAgain() {
+		SharedSessionRepository.SharedSession session = sessionRepository.createSession();
+		sessionRepository.save(session);
+
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+		try {
+			assertThat(sessionRepository.findById(session.getId())).isNotNull();
+			sessionRepository.deleteById(session.getId());
+
+			assertThat(sessionRepository.findById(session.getId())).isNull();
+		} finally {
+			RequestContextHolder.resetRequestAttributes();
+		}
+	}
+
+	@Test
+	void expiredAndDeletedSessionsAreNotFound() {
+		SharedSessionRepository.SharedSession expired = sessionRepository.createSession();
+		expired.setMaxInactiveInterval(Duration.ofSeconds(1));
+		expired.setLastAccessedTime(Instant.now().minus(Duration.ofHours(1)));
+		sessionRepository.save(expired);
+		assertThat(sessionRepository.findById(expired.getId())).isNull();
+
+		SharedSessionRepository.SharedSession deleted = sessionRepository.createSession();
+		sessionRepository.save(deleted);
+		sessionRepository.deleteById(deleted.getId());
+		assertThat(sessionRepository.findById(deleted.getId())).isNull();
+		assertThat(storedSessionRepository.findBySessionId(deleted.getId())).isEmpty();
+	}
+
+	@Test
+	void sessionDeletedOnOneNodeIsGoneOnAnotherThatCachedIt() {
+		SharedSessionRepository.SharedSession session = sessionRepository.createSession();
+		session.setAttribute("name", "value");
+		sessionRepository.save(session);
+		SharedSessionRepository otherNode = otherNode();
+		assertThat(otherNode.findById(session.getId())).isNotNull();
+
+		sessionRepository.deleteById(session.getId());
+
+		assertThat(otherNode.findById(session.getId())).isNull();
+	}
+
+	@Test
+	void rotatedIdIsNotServedFromAnotherNodesCache() {
+		SharedSessionRepository.SharedSession session = sessionRepository.createSession();
+		sessionRepository.save(session);
+		String oldId = session.getId();
+		SharedSessionRepository otherNode = otherNode();
+		assertThat(otherNode.findById(oldId)).isNotNull();
+
+		session.changeSessionId();
+		sessionRepository.save(session);
+
+		assertThat(otherNode.findById(oldId)).isNull();
+	}
+
+	@Test
+	void attributeChangedOnOneNodeIsSeenByAnotherThatCachedIt() {
+		SharedSessionRepository.SharedSession session = sessionRepository.createSession();
+		session.setAttribute("counter", 1);
+		sessionRepository.save(session);
+		SharedSessionRepository otherNode = otherNode();
+		assertThat((Integer) otherNode.findById(session.getId()).getAttribute("counter")).isEqualTo(1);
+
+		session.setAttribute("counter", 2);
+		sessionRepository.save(session);
+
+		assertThat((Integer) otherNode.findById(session.getId()).getAttribute("counter")).isEqualTo(2);
+	}
+
+	@Test
+	void concurrentWritesToDifferentAttributesAreMerged() {
+		SharedSessionRepository.SharedSession session = sessionRepository.createSession();
+		session.setAttribute("kept", "value");
+		session.setAttribute("removed", "value");
+		sessionRepository.save(session);
+		SharedSessionRepository otherNode = otherNode();
+		SharedSessionRepository.SharedSession here = sessionRepository.findById(session.getId());
+		SharedSessionRepository.SharedSession there = otherNode.findById(session.getId());
+
+		here.setAttribute("a", 1);
+		here.removeAttribute("removed");
+		sessionRepository.save(here);
+		there.setAttribute("b", 2);
+		otherNode.save(there);
+
+		SharedSessionRepository.SharedSession merged = otherNode().findById(session.getId());
+		assertThat(merged.getAttributeNames()).containsExactlyInAnyOrder("kept", "a", "b");
+		assertThat(there.getAttributeNames()).containsExactlyInAnyOrder("kept", "a", "b");
+	}
+
+	@Test
+	void sessionsFoundByPrincipalCanBeExpiredFromAnotherNode() {
+		User user = new User("carol", "{noop}secret", AuthorityUtils.createAuthorityList("ROLE_USER"));
+		user.eraseCredentials();
+		SharedSessionRepository.SharedSession session = sessionRepository.createSession();
+		session.setAttribute("SPRING_SECURITY_CONTEXT", new SecurityContextImpl(
+				UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities())));
+		sessionRepository.save(session);
+		SpringSessionBackedSessionRegistry<SharedSessionRepository.SharedSession> otherRegistry =
+				new SpringSessionBackedSessionRegistry<>(otherNode());
+
+		List<SessionInformation> sessions = otherRegistry.getAllSessions(user, false);
+		assertThat(sessions).extracting(SessionInformation::getSessionId).containsExactly(session.getId());
+		sessions.get(0).expireNow();
+
+		SpringSessionBackedSessionRegistry<SharedSessionRepository.SharedSession> registry =
+				new SpringSessionBackedSessionRegistry<>(sessionRepository);
+		assertThat(registry.getSessionInformation(session.getId()).isExpired()).isTrue();
+		assertThat(registry.getAllSessions(user, false)).isEmpty();
+	}
+
+	private SharedSessionRepository otherNode() {
+		return new SharedSessionRepository(storedSessionRepository,
+				new SessionAttributeCodec(getClass().getClassLoader()),
+				eventPublisher, transactionManager, new SimpleMeterRegistry(),
+				Duration.ofMinutes(30), Duration.ofMinutes(1), 100, Duration.ofSeconds(5), 500);
+	}
+
+	private long storedAccessTime(String sessionId) {
+		return storedSessionRepository.findBySessionId(sessionId).orElseThrow().getLastAccessedTime();
+	}
+}
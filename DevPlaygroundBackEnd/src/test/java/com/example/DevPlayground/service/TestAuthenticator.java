@@ -0,0 +1,86 @@
+package com.example.DevPlayground.service;
+
+import com.webauthn4j.converter.util.ObjectConverter;
+import com.webauthn4j.data.attestation.authenticator.EC2COSEKey;
+import com.webauthn4j.data.attestation.statement.COSEAlgorithmIdentifier;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.Signature;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+
+/**
+ * An ES256 authenticator that produces assertions the way a browser and a platform authenticator would.
+ */
+final class TestAuthenticator {
+
+	static final byte FLAG_USER_PRESENT = 0x01;
+	static final byte FLAG_USER_VERIFIED = 0x04;
+
+	private final KeyPair keyPair;
+
+	TestAuthenticator() {
+		try {
+			KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+			generator.initialize(new ECGenParameterSpec("secp256r1"));
+			this.keyPair = generator.generateKeyPair();
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	ECPublicKey publicKey() {
+		return (ECPublicKey) keyPair.getPublic();
+	}
+
+	/**
+	 * @return the COSE public key as stored in passkeys.publicKey
+	 */
+	String coseKey() {
+		EC2COSEKey coseKey = EC2COSEKey.create(publicKey(), COSEAlgorithmIdentifier.ES256);
+		return base64Url(new ObjectConverter().getCborConverter().writeValueAsBytes(coseKey));
+	}
+
+	static byte[] authenticatorData(String rpId, byte flags, long signCount) {
+		return ByteBuffer.allocate(37)
+				.put(sha256(rpId.getBytes(StandardCharsets.UTF_8)))
+				.put(flags)
+				.putInt((int) signCount)
+				.array();
+	}
+
+	static byte[] clientData(String challenge, String origin) {
+		return ("{\"type\":\"webauthn.get\",\"challenge\":\"" + challenge + "\",\"origin\":\"" + origin + "\"}")
+				.getBytes(StandardCharsets.UTF_8);
+	}
+
+	byte[] sign(byte[] authenticatorData, byte[] clientData) {
+		try {
+			Signature signature = Signature.getInstance("SHA256withECDSA");
+			signature.initSign(keyPair.getPrivate());
+			signature.update(authenticatorData);
+			signature.update(sha256(clientData));
+			return signature.sign();
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	static byte[] sha256(byte[] data) {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(data);
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	static String base64Url(byte[] bytes) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+	}
+}
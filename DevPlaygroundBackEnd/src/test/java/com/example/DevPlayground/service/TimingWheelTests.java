@@ -0,0 +1,114 @@
+package com.example.DevPlayground.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTests {
+
+	private static final long TICK = 10;
+	// Generous upper bound for a late fire, so a busy build machine does not fail the tests
+	private static final long SLACK = 500;
+
+	@Test
+	void timeoutsFireInOrderAndNeverEarly() throws InterruptedException {
+		long start = System.currentTimeMillis();
+		TimingWheel<Long> wheel = new TimingWheel<>(TICK, 8, start);
+		List<Long> deadlines = List.of(start + 55, start + 15, start + 35);
+		deadlines.forEach(deadline -> assertThat(wheel.schedule(new TimingWheel.Timeout<>(deadline, deadline))).isTrue());
+		assertThat(wheel.pending()).isEqualTo(3);
+
+		List<Fired> fired = advanceUntil(wheel, 3, start + 55 + SLACK);
+
+		assertThat(fired).extracting(Fired::deadline).containsExactly(start + 15, start + 35, start + 55);
+		assertThat(fired).allSatisfy(f -> assertThat(f.at()).isGreaterThanOrEqualTo(f.deadline()));
+		assertThat(wheel.pending()).isZero();
+	}
+
+	@Test
+	void deadlinesBeyondTheFirstLevelCascadeDown() throws InterruptedException {
+		long start = System.currentTimeMillis();
+		// Levels of 40ms, 160ms and 640ms: the second deadline lives two overflow levels up at first
+		TimingWheel<Long> wheel = new TimingWheel<>(TICK, 4, start);
+		long near = start + 25;
+		long far = start + 300;
+		wheel.schedule(new TimingWheel.Timeout<>(far, far));
+		wheel.schedule(new TimingWheel.Timeout<>(near, near));
+
+		List<Fired> fired = advanceUntil(wheel, 2, far + SLACK);
+
+		assertThat(fired).extracting(Fired::deadline).containsExactly(near, far);
+		assertThat(fired.get(1).at()).isGreaterThanOrEqualTo(far).isLessThan(far + SLACK);
+	}
+
+	@Test
+	void deadlinesFarAheadAddOverflowLevelsOnDemand() throws InterruptedException {
+		long start = System.currentTimeMillis();
+		// With 1ms ticks and 2 buckets per level, 400ms ahead lies eight overflow levels up
+		TimingWheel<Long> wheel = new TimingWheel<>(1, 2, start);
+		long far = start + 400;
+		assertThat(wheel.schedule(new TimingWheel.Timeout<>(far, far))).isTrue();
+
+		List<Fired> fired = advanceUntil(wheel, 1, far + SLACK);
+
+		assertThat(fired).extracting(Fired::deadline).containsExactly(far);
+		assertThat(fired.get(0).at()).isGreaterThanOrEqualTo(far);
+	}
+
+	@Test
+	void cancelledTimeoutsDoNotFire() throws InterruptedException {
+		long start = System.currentTimeMillis();
+		TimingWheel<Long> wheel = new TimingWheel<>(TICK, 4, start);
+		TimingWheel.Timeout<Long> cancelled = new TimingWheel.Timeout<>(start + 20, 1L);
+		TimingWheel.Timeout<Long> cancelledFar = new TimingWheel.Timeout<>(start + 200, 2L);
+		long kept = start + 250;
+		wheel.schedule(cancelled);
+		wheel.schedule(cancelledFar);
+		wheel.schedule(new TimingWheel.Timeout<>(kept, kept));
+
+		cancelled.cancel();
+		cancelledFar.cancel();
+		List<Fired> fired = advanceUntil(wheel, 1, kept + SLACK);
+
+		assertThat(fired).extracting(Fired::deadline).containsExactly(kept);
+		// Cancelled timeouts are only dropped once their bucket has come due
+		assertThat(wheel.pending()).isZero();
+	}
+
+	@Test
+	void passedDeadlinesAreRejectedBySchedule() {
+		long start = System.currentTimeMillis();
+		TimingWheel<Long> wheel = new TimingWheel<>(TICK, 4, start);
+
+		assertThat(wheel.schedule(new TimingWheel.Timeout<>(start - 1000, 1L))).isFalse();
+		assertThat(wheel.pending()).isZero();
+	}
+
+	@Test
+	void passedDeadlinesExpireOnTheNextAdvance() throws InterruptedException {
+		long start = System.currentTimeMillis();
+		TimingWheel<Long> wheel = new TimingWheel<>(TICK, 4, start);
+		long passed = start - 1000;
+
+		wheel.scheduleOrExpire(new TimingWheel.Timeout<>(passed, passed));
+		assertThat(wheel.pending()).isEqualTo(1);
+
+		List<Fired> fired = advanceUntil(wheel, 1, start + SLACK);
+		assertThat(fired).extracting(Fired::deadline).containsExactly(passed);
+		assertThat(fired.get(0).at()).isLessThan(start + TICK + SLACK);
+		assertThat(wheel.pending()).isZero();
+	}
+
+	private static List<Fired> advanceUntil(TimingWheel<Long> wheel, int count, long giveUpAt) throws InterruptedException {
+		List<Fired> fired = new ArrayList<>();
+		while (fired.size() < count && System.currentTimeMillis() < giveUpAt) {
+			wheel.advance(TICK, deadline -> fired.add(new Fired(deadline, System.currentTimeMillis())));
+		}
+		return fired;
+	}
+
+	private record Fired(long deadline, long at) {}
+}
@@ -0,0 +1,73 @@
+package com.example.DevPlayground.service;
+
+import com.example.DevPlayground.entity.Todo;
+import com.example.DevPlayground.entity.TodoStatus;
+import com.example.DevPlayground.repository.TodoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class TodoListVersionsTests {
+
+	@Autowired
+	private TodoService todoService;
+
+	@Autowired
+	private TodoRepository todoRepository;
+
+	@Autowired
+	private TodoListVersions todoListVersions;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void createAndDeleteOnDifferentIdBlocksChangeTheTag() {
+		Todo older = todoService.createTodo("blocks", "older", "description", TodoStatus.PENDING, null);
+		Todo newer = todoService.createTodo("blocks", "newer", "description", TodoStatus.PENDING, null);
+		// Another node inserted "newer" from an id block above the one this node is allocating from
+		jdbcTemplate.update("UPDATE todos SET id = ? WHERE id = ?", newer.getId() + 1_000_000, newer.getId());
+		String before = todoService.getTodoListETag("blocks");
+
+		// Row count, highest id and the sum of versions all end up as they were
+		todoService.createTodo("blocks", "created", "description", TodoStatus.PENDING, null);
+		todoService.deleteTodoById(older.getId());
+
+		assertThat(todoRepository.findByUserNameOrderByDueDate("blocks")).hasSize(2);
+		assertThat(todoService.getTodoListETag("blocks")).isNotEqualTo(before);
+	}
+
+	@Test
+	void everyCommittedWriteChangesTheTagAndRollbacksDoNot() {
+		String empty = todoService.getTodoListETag("versions");
+
+		Todo todo = todoService.createTodo("versions", "title", "description", TodoStatus.PENDING, null);
+		String created = todoService.getTodoListETag("versions");
+		assertThat(created).isNotEqualTo(empty);
+
+		assertThatThrownBy(() -> todoService.applyBulk(List.of(), Map.of(todo.getId(), TodoStatus.COMPLETED, Long.MAX_VALUE, TodoStatus.COMPLETED), List.of()))
+				.isInstanceOf(RuntimeException.class);
+		assertThat(todoService.getTodoListETag("versions")).isEqualTo(created);
+
+		todoService.updateTodoStatus("versions", todo.getId(), todo.getVersion(), TodoStatus.COMPLETED);
+		assertThat(todoService.getTodoListETag("versions")).isNotEqualTo(created);
+	}
+
+	@Test
+	void batchReadAgreesWithSingleReads() {
+		todoService.createTodo("batch-a", "title", "description", TodoStatus.PENDING, null);
+
+		Map<String, String> eTags = todoListVersions.eTags(List.of("batch-a", "batch-unknown"));
+
+		assertThat(eTags).containsEntry("batch-a", todoService.getTodoListETag("batch-a"))
+				.containsEntry("batch-unknown", todoService.getTodoListETag("batch-unknown"));
+	}
+}
@@ -0,0 +1,103 @@
+package com.example.DevPlayground.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TodoSearchIndexTests {
+
+	@Test
+	void cjkDocumentsIndexUnigramsAndBigrams() {
+		assertThat(TodoSearchIndex.tokenize("東京タワー", false))
+				.containsExactlyInAnyOrder("東", "京", "タ", "ワ", "ー", "東京", "京タ", "タワ", "ワー");
+	}
+
+	@Test
+	void cjkQueriesUseBigramsUnlessSingleCharacter() {
+		assertThat(TodoSearchIndex.tokenize("東京タワー", true))
+				.containsExactlyInAnyOrder("東京", "京タ", "タワ", "ワー");
+		assertThat(TodoSearchIndex.tokenize("東", true)).containsExactly("東");
+	}
+
+	@Test
+	void latinWordsAreLowerCasedAndSplitFromCjk() {
+		assertThat(TodoSearchIndex.tokenize("Buy 牛乳 at Shop-2", true))
+				.containsExactlyInAnyOrder("buy", "牛乳", "at", "shop", "2");
+		assertThat(TodoSearchIndex.tokenize("  ", false)).isEmpty();
+		assertThat(TodoSearchIndex.tokenize(null, false)).isEmpty();
+	}
+
+	@Test
+	void cjkQueryMatchesInsideLongerText() {
+		TodoSearchIndex index = new TodoSearchIndex();
+		index.index("alice", 1, "東京タワーに行く", "");
+		index.index("alice", 2, "京都に行く", "");
+
+		assertThat(index.search("alice", "タワー", 10)).containsExactly(1L);
+		assertThat(index.search("alice", "京", 10)).containsExactly(2L, 1L);
+		assertThat(index.search("alice", "大阪", 10)).isEmpty();
+	}
+
+	@Test
+	void resultsAreNewestFirstWhateverTheInsertOrder() {
+		TodoSearchIndex index = new TodoSearchIndex();
+		for (long id : new long[] {5, 1, 9, 3, 7}) {
+			index.index("alice", id, "report", "weekly");
+		}
+
+		assertThat(index.search("alice", "report", 10)).containsExactly(9L, 7L, 5L, 3L, 1L);
+		assertThat(index.search("alice", "report weekly", 2)).containsExactly(9L, 7L);
+		assertThat(index.size()).isEqualTo(5);
+	}
+
+	@Test
+	void removeDropsThePostingsAndTheCount() {
+		TodoSearchIndex index = new TodoSearchIndex();
+		index.index("alice", 1, "report", "");
+		index.index("alice", 2, "report", "");
+		index.index("alice", 3, "report", "");
+
+		index.remove("alice", 2);
+		index.remove("alice", 2);
+		index.remove("bob", 1);
+
+		assertThat(index.search("alice", "report", 10)).containsExactly(3L, 1L);
+		assertThat(index.size()).isEqualTo(2);
+	}
+
+	@Test
+	void searchIsPerUser() {
+		TodoSearchIndex index = new TodoSearchIndex();
+		index.index("alice", 1, "report", "");
+
+		assertThat(index.search("bob", "report", 10)).isEmpty();
+	}
+
+	@Test
+	void updateWithNullKeepsThatSide() {
+		TodoSearchIndex index = new TodoSearchIndex();
+		index.index("alice", 1, "groceries", "milk");
+
+		index.update("alice", 1, null, "bread");
+
+		assertThat(index.search("alice", "groceries", 10)).containsExactly(1L);
+		assertThat(index.search("alice", "bread", 10)).containsExactly(1L);
+		assertThat(index.search("alice", "milk", 10)).isEmpty();
+
+		index.update("alice", 1, "shopping", null);
+
+		assertThat(index.search("alice", "groceries", 10)).isEmpty();
+		assertThat(index.search("alice", "shopping bread", 10)).containsExactly(1L);
+		assertThat(index.size()).isEqualTo(1);
+	}
+
+	@Test
+	void updateOfUnknownTodoIndexesIt() {
+		TodoSearchIndex index = new TodoSearchIndex();
+
+		index.update("alice", 1, "report", null);
+
+		assertThat(index.search("alice", "report", 10)).containsExactly(1L);
+		assertThat(index.size()).isEqualTo(1);
+	}
+}
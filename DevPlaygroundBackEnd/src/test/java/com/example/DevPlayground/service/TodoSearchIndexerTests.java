@@ -0,0 +1,54 @@
+package com.example.DevPlayground.service;
+
+import com.example.DevPlayground.dto.TodoSummary;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class TodoSearchIndexerTests {
+
+	// Far above the ids this node allocates, like a row inserted by another node
+	private static final long OTHER_NODE_ID = 900_000_000L;
+
+	@Autowired
+	private TodoService todoService;
+
+	@Autowired
+	private TodoSearchIndexer todoSearchIndexer;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void resyncIndexesTodosWrittenThroughOtherNodes() {
+		insertAsOtherNode(OTHER_NODE_ID, "search-resync", "kiwifruit");
+		assertThat(todoSearchIndexer.search("search-resync", "kiwifruit", 10)).isEmpty();
+
+		todoSearchIndexer.resync();
+
+		assertThat(todoService.searchTodos("search-resync", "kiwifruit", null))
+				.extracting(TodoSummary::id).containsExactly(OTHER_NODE_ID);
+	}
+
+	@Test
+	void todosDeletedThroughOtherNodesAreForgottenWhenSearchReturnsThem() {
+		insertAsOtherNode(OTHER_NODE_ID + 1, "search-forget", "papaya");
+		todoSearchIndexer.resync();
+		jdbcTemplate.update("DELETE FROM todos WHERE id = ?", OTHER_NODE_ID + 1);
+
+		assertThat(todoService.searchTodos("search-forget", "papaya", null)).isEmpty();
+		assertThat(todoSearchIndexer.search("search-forget", "papaya", 10)).isEmpty();
+	}
+
+	private void insertAsOtherNode(long id, String userName, String title) {
+		LocalDateTime now = LocalDateTime.now();
+		jdbcTemplate.update("INSERT INTO todos (id, user_name, title, description, status, version, created_at, updated_at) "
+				+ "VALUES (?, ?, ?, 'description', 'PENDING', 0, ?, ?)", id, userName, title, now, now);
+	}
+}
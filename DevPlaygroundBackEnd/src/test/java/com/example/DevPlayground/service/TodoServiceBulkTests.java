@@ -0,0 +1,81 @@
+package com.example.DevPlayground.service;
+
+import com.example.DevPlayground.entity.Todo;
+import com.example.DevPlayground.entity.TodoStatus;
+import com.example.DevPlayground.repository.TodoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class TodoServiceBulkTests {
+
+	@Autowired
+	private TodoService todoService;
+
+	@Autowired
+	private TodoRepository todoRepository;
+
+	@Test
+	void bulkCreateInsertsRowsAndUpdatesCountersAndList() {
+		// Load counters and the cached list first, so the bulk insert has to update them
+		assertThat(todoService.getTodoStatsByUserName("bulk-ok").total()).isZero();
+		assertThat(cachedList("bulk-ok")).isEmpty();
+
+		TodoService.BulkResult result = todoService.applyBulk(List.of(
+				todoService.newTodo("bulk-ok", "first", "description", TodoStatus.PENDING, null),
+				todoService.newTodo("bulk-ok", "second", "description", TodoStatus.PENDING, "2030-01-01T10:00"),
+				todoService.newTodo("bulk-ok", "third", "description", TodoStatus.COMPLETED, null)),
+				Map.of(), List.of());
+
+		List<Long> ids = result.created().stream().map(Todo::getId).toList();
+		assertThat(ids).doesNotContainNull().doesNotHaveDuplicates().hasSize(3);
+		assertThat(todoRepository.findAllById(ids))
+				.extracting(Todo::getTitle)
+				.containsExactlyInAnyOrder("first", "second", "third");
+		assertThat(todoService.getTodoStatsByUserName("bulk-ok").byStatus())
+				.containsEntry(TodoStatus.PENDING, 2L)
+				.containsEntry(TodoStatus.COMPLETED, 1L);
+		assertThat(cachedList("bulk-ok")).extracting(Todo::getId).containsExactlyInAnyOrderElementsOf(ids);
+	}
+
+	@Test
+	void bulkThatFailsPartWayLeavesNothingBehind() {
+		todoService.createTodo("bulk-fail", "existing", "description", TodoStatus.PENDING, null);
+		assertThat(todoService.getTodoStatsByUserName("bulk-fail").total()).isEqualTo(1);
+		assertThat(cachedList("bulk-fail")).hasSize(1);
+
+		// The creates are flushed before the unknown id of the status update is detected
+		assertThatThrownBy(() -> todoService.applyBulk(List.of(
+						todoService.newTodo("bulk-fail", "first", "description", TodoStatus.PENDING, null),
+						todoService.newTodo("bulk-fail", "second", "description", TodoStatus.PENDING, null)),
+				Map.of(Long.MAX_VALUE, TodoStatus.COMPLETED), List.of()))
+				.isInstanceOf(RuntimeException.class)
+				.hasMessageContaining(Long.toString(Long.MAX_VALUE));
+
+		assertThat(todoRepository.findByUserNameOrderByDueDate("bulk-fail"))
+				.extracting(Todo::getTitle).containsExactly("existing");
+		assertThat(todoService.getTodoStatsByUserName("bulk-fail").total()).isEqualTo(1);
+		assertThat(cachedList("bulk-fail")).extracting(Todo::getTitle).containsExactly("existing");
+	}
+
+	@Test
+	void bulkDeleteReportsOnlyRowsThatExisted() {
+		Todo todo = todoService.createTodo("bulk-delete", "title", "description", TodoStatus.PENDING, null);
+
+		TodoService.BulkResult result = todoService.applyBulk(List.of(), Map.of(), List.of(todo.getId(), Long.MAX_VALUE));
+
+		assertThat(result.deleted()).isEqualTo(1);
+		assertThat(todoService.getTodoStatsByUserName("bulk-delete").total()).isZero();
+	}
+
+	private List<Todo> cachedList(String userName) {
+		return todoService.getTodosByUserName(userName, todoService.getTodoListETag(userName));
+	}
+}
@@ -0,0 +1,112 @@
+package com.example.DevPlayground.service;
+
+import com.example.DevPlayground.entity.Role;
+import com.example.DevPlayground.entity.Users;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserDetailsCacheTests {
+
+	private static final Duration TTL = Duration.ofSeconds(30);
+	private static final Duration NEGATIVE_TTL = Duration.ofSeconds(5);
+
+	private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+	// The users table as every node sees it
+	private final Map<String, Users> table = new ConcurrentHashMap<>();
+	private final UserDetailsCache cache = new UserDetailsCache(100, TTL, NEGATIVE_TTL, new SimpleMeterRegistry(), clock::get);
+
+	@Test
+	void userCreatedOnThisNodeIsFoundRightAway() {
+		assertThat(lookup("alice")).isEmpty();
+
+		table.put("alice", user("alice", "hash"));
+		cache.evict(List.of("alice"));
+
+		assertThat(lookup("alice")).map(UserDetails::getUsername).contains("alice");
+	}
+
+	@Test
+	void userCreatedOnAnotherNodeIsFoundWithinNegativeTtl() {
+		assertThat(lookup("bob")).isEmpty();
+
+		table.put("bob", user("bob", "hash"));
+		assertThat(lookup("bob")).isEmpty();
+
+		advance(NEGATIVE_TTL.plusMillis(1));
+		assertThat(lookup("bob")).map(UserDetails::getUsername).contains("bob");
+	}
+
+	@Test
+	void userDeletedOnThisNodeIsGoneRightAway() {
+		table.put("carol", user("carol", "hash"));
+		assertThat(lookup("carol")).isPresent();
+
+		table.remove("carol");
+		cache.evict(List.of("carol"));
+
+		assertThat(lookup("carol")).isEmpty();
+	}
+
+	@Test
+	void userDeletedOnAnotherNodeIsGoneWithinTtl() {
+		table.put("dave", user("dave", "hash"));
+		assertThat(lookup("dave")).isPresent();
+
+		table.remove("dave");
+		// Still served while the entry lives, even though it is read repeatedly
+		advance(TTL.minusSeconds(1));
+		assertThat(lookup("dave")).isPresent();
+
+		advance(Duration.ofSeconds(1).plusMillis(1));
+		assertThat(lookup("dave")).isEmpty();
+	}
+
+	@Test
+	void passwordChangedOnAnotherNodeIsUsedWithinTtl() {
+		table.put("erin", user("erin", "old"));
+		assertThat(lookup("erin")).map(UserDetails::getPassword).contains("old");
+
+		table.put("erin", user("erin", "new"));
+		advance(TTL.plusMillis(1));
+
+		assertThat(lookup("erin")).map(UserDetails::getPassword).contains("new");
+	}
+
+	@Test
+	void everyLookupGetsItsOwnUserDetails() {
+		table.put("frank", user("frank", "hash"));
+
+		UserDetails first = lookup("frank").orElseThrow();
+		UserDetails second = lookup("frank").orElseThrow();
+
+		assertThat(first).isNotSameAs(second);
+		assertThat(second.getAuthorities()).extracting("authority").containsExactly("ROLE_USER");
+	}
+
+	private Optional<UserDetails> lookup(String username) {
+		return cache.get(username, key -> Optional.ofNullable(table.get(key)));
+	}
+
+	private void advance(Duration duration) {
+		clock.addAndGet(duration.toNanos());
+	}
+
+	private static Users user(String username, String password) {
+		Users user = new Users();
+		user.setUsername(username);
+		user.setPassword(password);
+		user.setRole(Role.USER);
+		user.setEnabled(true);
+		return user;
+	}
+}
@@ -0,0 +1,39 @@
+package com.example.DevPlayground.service;
+
+import com.example.DevPlayground.entity.Role;
+import com.example.DevPlayground.entity.Users;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class UserServiceTests {
+
+	@Autowired
+	private UserService userService;
+
+	@Test
+	void createdUserCanBeLookedUpAfterAFailedLookup() {
+		assertThatThrownBy(() -> userService.loadUserByUsername("created-later"))
+				.isInstanceOf(UsernameNotFoundException.class);
+
+		userService.createUser("created-later", "created-later@example.com", "password", Role.USER);
+
+		assertThat(userService.loadUserByUsername("created-later").getUsername()).isEqualTo("created-later");
+	}
+
+	@Test
+	void deletedUserCannotBeLookedUp() {
+		Users user = userService.createUser("deleted", "deleted@example.com", "password", Role.USER);
+		assertThat(userService.loadUserByUsername("deleted").getUsername()).isEqualTo("deleted");
+
+		userService.deleteUser(user.getId());
+
+		assertThatThrownBy(() -> userService.loadUserByUsername("deleted"))
+				.isInstanceOf(UsernameNotFoundException.class);
+	}
+}
@@ -0,0 +1,106 @@
+package com.example.DevPlayground.service;
+
+import com.webauthn4j.WebAuthnManager;
+import com.webauthn4j.converter.util.ObjectConverter;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.example.DevPlayground.service.TestAuthenticator.FLAG_USER_PRESENT;
+import static com.example.DevPlayground.service.TestAuthenticator.FLAG_USER_VERIFIED;
+import static com.example.DevPlayground.service.TestAuthenticator.authenticatorData;
+import static com.example.DevPlayground.service.TestAuthenticator.base64Url;
+import static com.example.DevPlayground.service.TestAuthenticator.clientData;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebAuthnVerifierTests {
+
+	private static final String RP_ID = "localhost";
+	private static final String ORIGIN = "http://localhost:5173";
+
+	private final ObjectConverter objectConverter = new ObjectConverter();
+	private final WebAuthnVerifier webAuthnVerifier = new WebAuthnVerifier(
+			WebAuthnManager.createNonStrictWebAuthnManager(objectConverter), objectConverter, RP_ID, List.of(ORIGIN));
+	private final TestAuthenticator authenticator = new TestAuthenticator();
+	private final PasskeySignatureVerifier verifier = new PasskeySignatureVerifier(
+			"credential", "alice", authenticator.publicKey(), "SHA256withECDSA", 0);
+
+	@Test
+	void validAssertionReturnsSignCount() {
+		byte[] authenticatorData = authenticatorData(RP_ID, (byte) (FLAG_USER_PRESENT | FLAG_USER_VERIFIED), 7);
+		byte[] clientData = clientData("abc", ORIGIN);
+
+		assertThat(verify(authenticatorData, clientData, authenticator.sign(authenticatorData, clientData))).isEqualTo(7);
+	}
+
+	@Test
+	void signCountIsReadAsUnsigned() {
+		byte[] authenticatorData = authenticatorData(RP_ID, FLAG_USER_PRESENT, 0xFFFFFFFFL);
+		byte[] clientData = clientData("abc", ORIGIN);
+
+		assertThat(verify(authenticatorData, clientData, authenticator.sign(authenticatorData, clientData))).isEqualTo(0xFFFFFFFFL);
+	}
+
+	@Test
+	void wrongRpIdIsRejected() {
+		// Correctly signed, but for another relying party
+		byte[] authenticatorData = authenticatorData("evil.example", FLAG_USER_PRESENT, 1);
+		byte[] clientData = clientData("abc", ORIGIN);
+
+		assertThat(verify(authenticatorData, clientData, authenticator.sign(authenticatorData, clientData))).isEqualTo(-1);
+	}
+
+	@Test
+	void userPresentFlagClearedIsRejected() {
+		byte[] authenticatorData = authenticatorData(RP_ID, FLAG_USER_VERIFIED, 1);
+		byte[] clientData = clientData("abc", ORIGIN);
+
+		assertThat(verify(authenticatorData, clientData, authenticator.sign(authenticatorData, clientData))).isEqualTo(-1);
+	}
+
+	@Test
+	void tamperedSignatureIsRejected() {
+		byte[] authenticatorData = authenticatorData(RP_ID, FLAG_USER_PRESENT, 1);
+		byte[] clientData = clientData("abc", ORIGIN);
+		byte[] signature = authenticator.sign(authenticatorData, clientData);
+		signature[signature.length - 1] ^= 0x01;
+
+		assertThat(verify(authenticatorData, clientData, signature)).isEqualTo(-1);
+	}
+
+	@Test
+	void signatureOverOtherDataIsRejected() {
+		byte[] authenticatorData = authenticatorData(RP_ID, FLAG_USER_PRESENT, 1);
+		byte[] clientData = clientData("abc", ORIGIN);
+		byte[] signature = authenticator.sign(authenticatorData, clientData);
+
+		// Raised counter after signing
+		assertThat(verify(authenticatorData(RP_ID, FLAG_USER_PRESENT, 2), clientData, signature)).isEqualTo(-1);
+		// Other challenge
+		assertThat(verify(authenticatorData, clientData("abd", ORIGIN), signature)).isEqualTo(-1);
+	}
+
+	@Test
+	void signatureOfAnotherKeyIsRejected() {
+		byte[] authenticatorData = authenticatorData(RP_ID, FLAG_USER_PRESENT, 1);
+		byte[] clientData = clientData("abc", ORIGIN);
+
+		assertThat(verify(authenticatorData, clientData, new TestAuthenticator().sign(authenticatorData, clientData))).isEqualTo(-1);
+	}
+
+	@Test
+	void malformedInputIsRejected() {
+		byte[] authenticatorData = authenticatorData(RP_ID, FLAG_USER_PRESENT, 1);
+		byte[] clientData = clientData("abc", ORIGIN);
+		byte[] signature = authenticator.sign(authenticatorData, clientData);
+
+		assertThat(verify(Arrays.copyOf(authenticatorData, 36), clientData, signature)).isEqualTo(-1);
+		assertThat(verify(authenticatorData, clientData, new byte[] {0x30, 0x00})).isEqualTo(-1);
+		assertThat(webAuthnVerifier.verifyAssertion(verifier, "not base64!", base64Url(clientData), base64Url(signature))).isEqualTo(-1);
+	}
+
+	private long verify(byte[] authenticatorData, byte[] clientData, byte[] signature) {
+		return webAuthnVerifier.verifyAssertion(verifier, base64Url(authenticatorData), base64Url(clientData), base64Url(signature));
+	}
+}